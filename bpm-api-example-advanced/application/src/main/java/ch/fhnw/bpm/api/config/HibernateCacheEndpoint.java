@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "hibernatecache")
+@ConditionalOnProperty("spring.jpa.properties.hibernate.cache.use_second_level_cache")
+public class HibernateCacheEndpoint {
+
+    private final Statistics statistics;
+
+    public HibernateCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> cacheStatistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("secondLevelCache", counts(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        result.put("queryCache", counts(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            SecondLevelCacheStatistics region = statistics.getSecondLevelCacheStatistics(regionName);
+            regions.put(regionName, counts(region.getHitCount(), region.getMissCount(), region.getPutCount()));
+        }
+        result.put("regions", regions);
+        return result;
+    }
+
+    private static Map<String, Object> counts(long hits, long misses, long puts) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+        counts.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return counts;
+    }
+}
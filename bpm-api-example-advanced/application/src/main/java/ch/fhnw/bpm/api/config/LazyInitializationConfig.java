@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in mode, enabled with {@code bpm.startup.lazy-initialization=true}, that defers creating application beans
+ * until they are first needed, so the web server accepts connections sooner. Framework infrastructure stays eager.
+ * The cost moves to the first requests, and configuration errors only surface when the affected bean is used.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bpm.startup.lazy-initialization", havingValue = "true")
+public class LazyInitializationConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor lazyInitializationPostProcessor() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (definition.getRole() != BeanDefinition.ROLE_INFRASTRUCTURE)
+                    definition.setLazyInit(true);
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every {@code PizzaService} method as {@code pizza.service} and every repository call as
+ * {@code pizza.repository}, tagged by method, repository and the exception thrown, if any.
+ */
+@Aspect
+@Component
+public class MetricsAspect {
+
+    private final MeterRegistry registry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    public MetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(* ch.fhnw.bpm.api.business.service.PizzaService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("pizza.service", Tags.of("method", joinPoint.getSignature().getName()), joinPoint);
+    }
+
+    @Around("execution(* *(..)) && target(repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint, Repository<?, ?> repository) throws Throwable {
+        String repositoryName = repositoryNames.computeIfAbsent(repository.getClass(), MetricsAspect::repositoryName);
+        return time("pizza.repository", Tags.of("repository", repositoryName, "method", joinPoint.getSignature().getName()), joinPoint);
+    }
+
+    private Object time(String name, Tags tags, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "None";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(registry.timer(name, tags.and("exception", exception)));
+        }
+    }
+
+    private static String repositoryName(Class<?> repositoryClass) {
+        for (Class<?> repositoryInterface : repositoryClass.getInterfaces()) {
+            if (Repository.class.isAssignableFrom(repositoryInterface))
+                return repositoryInterface.getSimpleName();
+        }
+        return AopProxyUtils.ultimateTargetClass(repositoryClass).getSimpleName();
+    }
+}
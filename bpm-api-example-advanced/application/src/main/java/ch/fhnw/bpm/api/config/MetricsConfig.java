@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.config;
+
+import ch.fhnw.bpm.api.business.service.CustomerCache;
+import ch.fhnw.bpm.api.business.service.DtoCache;
+import ch.fhnw.bpm.api.business.service.IdempotencyServiceImpl;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jpa.HibernateMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory, "entityManagerFactory", Collections.emptyList());
+    }
+
+    @Bean
+    public MeterBinder customerCacheMetrics(CustomerCache customerCache) {
+        return new CaffeineCacheMetrics(customerCache.getNativeCache(), "customers", Collections.emptyList());
+    }
+
+    @Bean
+    public MeterBinder orderCacheMetrics(DtoCache dtoCache) {
+        return new CaffeineCacheMetrics(dtoCache.getOrderCache(), "orders", Collections.emptyList());
+    }
+
+    @Bean
+    public MeterBinder paymentCacheMetrics(DtoCache dtoCache) {
+        return new CaffeineCacheMetrics(dtoCache.getPaymentCache(), "payments", Collections.emptyList());
+    }
+
+    @Bean
+    public MeterBinder idempotencyCacheMetrics(IdempotencyServiceImpl idempotencyService) {
+        return new CaffeineCacheMetrics(idempotencyService.getCache(), "idempotency", Collections.emptyList());
+    }
+}
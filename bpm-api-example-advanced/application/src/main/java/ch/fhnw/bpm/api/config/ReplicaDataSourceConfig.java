@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opt-in read/write split, enabled by setting {@code bpm.datasource.replica.url}. Read-only transactions are served
+ * by a separate replica pool and everything else by the primary pool configured under {@code spring.datasource}.
+ * The router sits behind a {@link LazyConnectionDataSourceProxy}, so the target is only chosen on the first statement,
+ * after the transaction manager has published whether the transaction is read-only. Replicas may lag behind the
+ * primary, so a read directly after a write can still return the previous state; the order and payment reads that
+ * fill the DTO cache therefore run in read-write transactions and stay on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bpm.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(environment.getProperty("bpm.datasource.replica.url"));
+        replica.setUsername(environment.getProperty("bpm.datasource.replica.username", properties.determineUsername()));
+        replica.setPassword(environment.getProperty("bpm.datasource.replica.password", properties.determinePassword()));
+        replica.setReadOnly(true);
+        binder.bind("bpm.datasource.replica.hikari", Bindable.ofInstance(replica));
+        return new ReadWriteDataSource(primary, replica);
+    }
+
+    static class ReadWriteDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+        private final HikariDataSource primary;
+        private final HikariDataSource replica;
+
+        ReadWriteDataSource(HikariDataSource primary, HikariDataSource replica) {
+            this.primary = primary;
+            this.replica = replica;
+            AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+                @Override
+                protected Object determineCurrentLookupKey() {
+                    return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+                }
+            };
+            Map<Object, Object> targets = new HashMap<>();
+            targets.put(Boolean.FALSE, primary);
+            targets.put(Boolean.TRUE, replica);
+            routing.setTargetDataSources(targets);
+            routing.setDefaultTargetDataSource(primary);
+            routing.afterPropertiesSet();
+            setTargetDataSource(routing);
+            afterPropertiesSet();
+        }
+
+        @Override
+        public void close() {
+            replica.close();
+            primary.close();
+        }
+    }
+}
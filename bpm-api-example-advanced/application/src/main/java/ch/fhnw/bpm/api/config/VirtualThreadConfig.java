@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.config;
+
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in mode, enabled with {@code bpm.virtual-threads.enabled=true}, that runs Tomcat request processing and
+ * Spring MVC async work such as the order export on virtual threads, so blocked JDBC calls no longer tie up a pooled
+ * worker. Requires a Java 21 runtime; the build still targets Java 8, so the executor is looked up reflectively.
+ * Connections are bounded by {@link BoundedDataSource}, sized by {@code bpm.virtual-threads.jdbc-permits}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bpm.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    private final ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return virtualThreadExecutor;
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadConnectorCustomizer() {
+        return factory -> factory.addConnectorCustomizers(connector -> ((AbstractProtocol<?>) connector.getProtocolHandler()).setExecutor(virtualThreadExecutor));
+    }
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(Environment environment) {
+        int permits = environment.getProperty("bpm.virtual-threads.jdbc-permits", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        long acquireTimeoutMillis = environment.getProperty("bpm.virtual-threads.jdbc-acquire-timeout-millis", Long.class, 30000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof BoundedDataSource))
+                    return new BoundedDataSource((DataSource) bean, permits, acquireTimeoutMillis);
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new ConcurrentTaskExecutor(virtualThreadExecutor));
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("bpm.virtual-threads.enabled requires a Java 21 or newer runtime, running on " + System.getProperty("java.version"), e);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.endpoint;
+
+import ch.fhnw.bpm.api.business.dto.OrderDTO;
+import ch.fhnw.bpm.api.business.dto.OrderEventDTO;
+import ch.fhnw.bpm.api.business.dto.OrderFixtures;
+import ch.fhnw.bpm.api.business.service.CustomerCache;
+import ch.fhnw.bpm.api.business.service.DtoCache;
+import ch.fhnw.bpm.api.business.service.OrderEventServiceImpl;
+import ch.fhnw.bpm.api.business.service.PizzaService;
+import ch.fhnw.bpm.api.data.repository.CustomerRepository;
+import ch.fhnw.bpm.api.data.repository.OrderRepository;
+import ch.fhnw.bpm.api.data.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:endpoint-test;DB_CLOSE_DELAY=-1",
+        "bpm.order-events.subscriber-queue-size=4"})
+@AutoConfigureMockMvc
+public class PizzaEndpointTests {
+
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PizzaService pizzaService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Autowired
+    private DtoCache dtoCache;
+
+    @Autowired
+    private OrderEventServiceImpl orderEventService;
+
+    @After
+    public void tearDown() {
+        orderRepository.deleteAllInBatch();
+        paymentRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+        customerCache.invalidateAll();
+        dtoCache.invalidateAll();
+    }
+
+    @Test
+    public void orderPagesLinkToTheNextCursor() throws Exception {
+        List<Long> ids = createOrders(3);
+        mockMvc.perform(get("/api/pizza/v1/order").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string(HttpHeaders.LINK, allOf(containsString("after=" + ids.get(1)),
+                        containsString("size=2"), endsWith(">; rel=\"next\""))));
+        mockMvc.perform(get("/api/pizza/v1/order").param("after", ids.get(1).toString()).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(ids.get(2)))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    public void orderPageSizeIsClamped() throws Exception {
+        List<Long> ids = createOrders(1001);
+        mockMvc.perform(get("/api/pizza/v1/order").param("size", "0"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string(HttpHeaders.LINK, allOf(containsString("after=" + ids.get(0)), containsString("size=1"))));
+        mockMvc.perform(get("/api/pizza/v1/order").param("size", "5000"))
+                .andExpect(jsonPath("$.length()").value(1000))
+                .andExpect(header().string(HttpHeaders.LINK, allOf(containsString("after=" + ids.get(999)), containsString("size=1000"))));
+    }
+
+    @Test
+    public void exportStreamsEveryOrderAcrossFetchWindows() throws Exception {
+        List<Long> ids = createOrders(1201);
+        assertEquals(ids, exportedIds(get("/api/pizza/v1/order/export")));
+        List<Long> customerIds = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += 3)
+            customerIds.add(ids.get(i));
+        assertEquals(customerIds, exportedIds(get("/api/pizza/v1/order/export").param("customerEmail", OrderFixtures.email(0))));
+    }
+
+    @Test
+    public void conditionalGetsAreNotModifiedUntilTheOrderChanges() throws Exception {
+        long id = createOrders(1).get(0);
+        String orderTag = etagOf(get("/api/pizza/v1/order/{id}", id));
+        String listTag = etagOf(get("/api/pizza/v1/order"));
+        mockMvc.perform(get("/api/pizza/v1/order/{id}", id).header(HttpHeaders.IF_NONE_MATCH, orderTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/pizza/v1/order").header(HttpHeaders.IF_NONE_MATCH, listTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(post("/api/pizza/v1/payment/{businessKey}", pizzaService.readOrder(id).getBusinessKey())
+                .contentType(MediaType.APPLICATION_JSON).content("{\"payment\":\"12.50\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/pizza/v1/order/{id}", id).header(HttpHeaders.IF_NONE_MATCH, orderTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PAID"))
+                .andExpect(header().string(HttpHeaders.ETAG, not(orderTag)));
+        mockMvc.perform(get("/api/pizza/v1/order").header(HttpHeaders.IF_NONE_MATCH, listTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("PAID"))
+                .andExpect(header().string(HttpHeaders.ETAG, not(listTag)));
+    }
+
+    @Test
+    public void binaryRepresentationsDecodeAndHaveTheirOwnEntityTags() throws Exception {
+        long id = createOrders(1).get(0);
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("application/json", Jackson2ObjectMapperBuilder.json().build());
+        formats.put("application/cbor", Jackson2ObjectMapperBuilder.cbor().build());
+        formats.put("application/x-jackson-smile", Jackson2ObjectMapperBuilder.smile().build());
+        Set<String> orderTags = new HashSet<>();
+        Set<String> listTags = new HashSet<>();
+        for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+            MockHttpServletResponse order = mockMvc.perform(get("/api/pizza/v1/order/{id}", id).accept(format.getKey()))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(format.getKey()))
+                    .andReturn().getResponse();
+            assertEquals(id, format.getValue().readValue(order.getContentAsByteArray(), OrderDTO.class).getId());
+            MockHttpServletResponse list = mockMvc.perform(get("/api/pizza/v1/order").accept(format.getKey()))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(format.getKey()))
+                    .andReturn().getResponse();
+            assertEquals(id, format.getValue().readValue(list.getContentAsByteArray(), OrderDTO[].class)[0].getId());
+            orderTags.add(order.getHeader(HttpHeaders.ETAG));
+            listTags.add(list.getHeader(HttpHeaders.ETAG));
+            mockMvc.perform(get("/api/pizza/v1/order/{id}", id).accept(format.getKey())
+                    .header(HttpHeaders.IF_NONE_MATCH, order.getHeader(HttpHeaders.ETAG)))
+                    .andExpect(status().isNotModified());
+        }
+        assertEquals(formats.size(), orderTags.size());
+        assertEquals(formats.size(), listTags.size());
+    }
+
+    @Test
+    public void replayedOrderReturnsTheFirstResponse() throws Exception {
+        String order = orderJson("idempotent@example.com", "12.50");
+        MvcResult first = mockMvc.perform(post("/api/pizza/v1/order").header("Idempotency-Key", "replay")
+                .contentType(MediaType.APPLICATION_JSON).content(order))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String location = first.getResponse().getHeader(HttpHeaders.LOCATION);
+        mockMvc.perform(post("/api/pizza/v1/order").header("Idempotency-Key", "replay")
+                .contentType(MediaType.APPLICATION_JSON).content(order))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, location))
+                .andExpect(content().json(first.getResponse().getContentAsString()));
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    public void reusedIdempotencyKeyWithAnotherOrderIsRejected() throws Exception {
+        mockMvc.perform(post("/api/pizza/v1/order").header("Idempotency-Key", "reused")
+                .contentType(MediaType.APPLICATION_JSON).content(orderJson("idempotent@example.com", "12.50")))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/pizza/v1/order").header("Idempotency-Key", "reused")
+                .contentType(MediaType.APPLICATION_JSON).content(orderJson("idempotent@example.com", "9.50")))
+                .andExpect(status().isUnprocessableEntity());
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    public void orderEventsResumeAfterTheLastEventId() throws Exception {
+        MvcResult live = mockMvc.perform(get("/api/pizza/v1/order/events")).andExpect(request().asyncStarted()).andReturn();
+        long first = pizzaService.createOrder(OrderFixtures.order(OrderFixtures.email(0))).getId();
+        long second = pizzaService.createOrder(OrderFixtures.order(OrderFixtures.email(0))).getId();
+        List<Long> ids = eventIds(live, 2);
+        MvcResult resumed = mockMvc.perform(get("/api/pizza/v1/order/events").header("Last-Event-ID", ids.get(0)))
+                .andExpect(request().asyncStarted()).andReturn();
+        assertEquals(ids.subList(1, 2), eventIds(resumed, 1));
+        assertThat(live.getResponse().getContentAsString(), containsString("\"orderId\":" + first));
+        assertThat(resumed.getResponse().getContentAsString(), allOf(containsString("event:ORDER_CREATED"),
+                containsString("\"orderId\":" + second), not(containsString("\"orderId\":" + first))));
+    }
+
+    @Test
+    public void orderEventsStartWithResyncWhenTheLastEventIdIsNoLongerRetained() throws Exception {
+        MvcResult outdated = mockMvc.perform(get("/api/pizza/v1/order/events").header("Last-Event-ID", 0))
+                .andExpect(request().asyncStarted()).andReturn();
+        eventIds(outdated, 1);
+        String first = outdated.getResponse().getContentAsString().split("\n\n")[0];
+        assertThat(first, allOf(startsWith("id:"), containsString("\nevent:RESYNC\n")));
+    }
+
+    @Test
+    public void orderBatchIsOneEventAndKeepsSubscribersConnected() throws Exception {
+        MvcResult live = mockMvc.perform(get("/api/pizza/v1/order/events")).andExpect(request().asyncStarted()).andReturn();
+        List<Long> orderIds = createOrders(100);
+        eventIds(live, 1);
+        assertThat(live.getResponse().getContentAsString(), allOf(containsString("event:ORDERS_CREATED"),
+                containsString("\"orderIds\":[" + orderIds.get(0) + ","), containsString("," + orderIds.get(99) + "]")));
+        assertEquals(true, live.getRequest().isAsyncStarted());
+    }
+
+    @Test
+    public void overflowingSubscriberIsDisconnected() throws Exception {
+        MvcResult live = mockMvc.perform(get("/api/pizza/v1/order/events")).andExpect(request().asyncStarted()).andReturn();
+        for (int i = 0; i < 10000 && live.getRequest().isAsyncStarted(); i++) {
+            OrderEventDTO event = new OrderEventDTO();
+            event.setType(OrderEventDTO.ORDER_CREATED);
+            orderEventService.onCommit(event);
+        }
+        live.getAsyncResult(5000);
+    }
+
+    // waits until at least the given number of events has been written and returns the ids of all written so far
+    private static List<Long> eventIds(MvcResult result, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<Long> ids = new ArrayList<>();
+        while (ids.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            ids.clear();
+            Matcher matcher = EVENT_ID.matcher(result.getResponse().getContentAsString());
+            while (matcher.find()) {
+                ids.add(Long.valueOf(matcher.group(1)));
+            }
+        }
+        assertThat(ids.size(), greaterThanOrEqualTo(count));
+        return ids;
+    }
+
+    private List<Long> exportedIds(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult export = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        String body = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Long> ids = new ArrayList<>();
+        for (String line : body.split("\n"))
+            ids.add(objectMapper.readTree(line).get("id").asLong());
+        return ids;
+    }
+
+    private String etagOf(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static String orderJson(String email, String price) {
+        return "{\"pizzaType\":\"Margherita\",\"pizzaSize\":\"L\",\"pizzaSauce\":\"Tomato\",\"pizzaCrust\":\"Thin\","
+                + "\"pizzaTopping\":\"Basil\",\"pizzaPrice\":\"" + price + "\",\"firstName\":\"First\",\"lastName\":\"Last\","
+                + "\"address\":\"Street\",\"email\":\"" + email + "\"}";
+    }
+
+    private List<Long> createOrders(int count) {
+        return pizzaService.createOrders(OrderFixtures.orders(count));
+    }
+}
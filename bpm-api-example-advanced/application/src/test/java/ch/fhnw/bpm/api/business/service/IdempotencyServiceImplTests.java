@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class IdempotencyServiceImplTests {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void runningRequestIsNotEvictedByCompletedOnes() throws Exception {
+        IdempotencyServiceImpl idempotencyService = new IdempotencyServiceImpl(2, 60, 5000);
+        Future<Long> first = executor.submit(() -> idempotencyService.execute("slow", "request", this::blockedAction));
+        started.await();
+        for (int i = 0; i < 100; i++) {
+            long id = i;
+            idempotencyService.execute("fast-" + i, "request", () -> id);
+        }
+        idempotencyService.getCache().cleanUp();
+        release.countDown();
+        assertEquals(42, (long) idempotencyService.execute("slow", "request", runs::incrementAndGet));
+        assertEquals(42, (long) first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test(expected = IdempotencyKeyInProgressException.class)
+    public void duplicateGivesUpWhenTheFirstRequestIsStuck() throws InterruptedException {
+        IdempotencyServiceImpl idempotencyService = new IdempotencyServiceImpl(10, 60, 50);
+        executor.submit(() -> idempotencyService.execute("stuck", "request", this::blockedAction));
+        started.await();
+        idempotencyService.execute("stuck", "request", runs::incrementAndGet);
+    }
+
+    private long blockedAction() {
+        runs.incrementAndGet();
+        started.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return 42;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import ch.fhnw.bpm.api.business.dto.OrderEventDTO;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OrderEventServiceImplTests {
+
+    private final OrderEventServiceImpl orderEventService = new OrderEventServiceImpl(16, 4);
+
+    @After
+    public void tearDown() {
+        orderEventService.shutdown();
+    }
+
+    @Test
+    public void slowSubscriberIsDroppedWithoutDelayingOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch dropped = new CountDownLatch(1);
+        orderEventService.subscribe(null, event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }, dropped::countDown);
+        BlockingQueue<OrderEventDTO> events = new LinkedBlockingQueue<>();
+        orderEventService.subscribe(null, events::add, () -> {});
+        for (int i = 0; i < 10; i++) {
+            OrderEventDTO event = new OrderEventDTO();
+            event.setType(OrderEventDTO.ORDER_CREATED);
+            orderEventService.onCommit(event);
+            assertEquals(event.getId(), events.poll(5, TimeUnit.SECONDS).getId());
+        }
+        release.countDown();
+        assertTrue(dropped.await(5, TimeUnit.SECONDS));
+        assertEquals(0, events.size());
+    }
+}
@@ -0,0 +1,540 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import ch.fhnw.bpm.api.business.dto.OrderDTO;
+import ch.fhnw.bpm.api.business.dto.OrderEventDTO;
+import ch.fhnw.bpm.api.business.dto.OrderFixtures;
+import ch.fhnw.bpm.api.business.dto.OrderPageDTO;
+import ch.fhnw.bpm.api.business.dto.PaymentDTO;
+import ch.fhnw.bpm.api.business.dto.RevenueDTO;
+import ch.fhnw.bpm.api.business.dto.SettlementDTO;
+import ch.fhnw.bpm.api.business.dto.SettlementResultDTO;
+import ch.fhnw.bpm.api.data.domain.CustomerEntity;
+import ch.fhnw.bpm.api.data.domain.OrderEntity;
+import ch.fhnw.bpm.api.data.domain.PizzaAttribute;
+import ch.fhnw.bpm.api.data.domain.PizzaAttributeEntity;
+import ch.fhnw.bpm.api.data.repository.CustomerRepository;
+import ch.fhnw.bpm.api.data.repository.OrderRepository;
+import ch.fhnw.bpm.api.data.repository.PaymentRepository;
+import ch.fhnw.bpm.api.data.repository.PizzaAttributeRepository;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn"})
+public class PizzaServiceImplTests {
+
+    @Autowired
+    private PizzaService pizzaService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Autowired
+    private DtoCache dtoCache;
+
+    @Autowired
+    private OrderEventService orderEventService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private UniqueInsert uniqueInsert;
+
+    @Autowired
+    private PizzaCatalog pizzaCatalog;
+
+    @Autowired
+    private PizzaAttributeRepository pizzaAttributeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @After
+    public void tearDown() {
+        orderRepository.deleteAll();
+        paymentRepository.deleteAll();
+        customerRepository.deleteAll();
+        customerCache.invalidateAll();
+        dtoCache.invalidateAll();
+    }
+
+    @Test
+    public void orderPageUsesFixedStatementCount() {
+        createOrders(5);
+        long fewRows = statementsOf(() -> pizzaService.findOrderPage(null, false, 0, 100).getOrders());
+        createOrders(45);
+        long manyRows = statementsOf(() -> pizzaService.findOrderPage(null, false, 0, 100).getOrders());
+        assertEquals(1, fewRows);
+        assertEquals(1, manyRows);
+    }
+
+    @Test
+    public void repeatCustomerUsesFixedStatementCount() {
+        createOrders(1);
+        CacheStats before = customerCache.stats();
+        statistics.clear();
+        pizzaService.createOrder(OrderFixtures.order(0, 3));
+        EntityStatistics customers = statistics.getEntityStatistics(CustomerEntity.class.getName());
+        assertEquals(0, statistics.getQueryExecutionCount());
+        assertEquals(0, customers.getLoadCount() + customers.getInsertCount() + customers.getUpdateCount());
+        statistics.clear();
+        OrderDTO moved = OrderFixtures.order(0, 3);
+        moved.getCustomer().setAddress("Bahnhofstrasse 6");
+        pizzaService.createOrder(moved);
+        customers = statistics.getEntityStatistics(CustomerEntity.class.getName());
+        assertEquals(1, customers.getUpdateCount());
+        assertEquals(0, customers.getInsertCount());
+        pizzaService.createOrder(OrderFixtures.order("new@example.com"));
+        CacheStats after = customerCache.stats();
+        assertEquals(2, after.hitCount() - before.hitCount());
+        assertEquals(1, after.missCount() - before.missCount());
+    }
+
+    @Test
+    public void customerReadCommittingAfterAnUpdateIsNotCached() throws Exception {
+        createOrders(1);
+        customerCache.invalidateAll();
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            new TransactionTemplate(transactionManager).execute(status -> {
+                pizzaService.createOrder(OrderFixtures.order(0, 3));
+                OrderDTO moved = OrderFixtures.order(0, 3);
+                moved.getCustomer().setAddress("Bahnhofstrasse 6");
+                try {
+                    writer.submit(() -> pizzaService.createOrder(moved)).get(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return null;
+            });
+        } finally {
+            writer.shutdownNow();
+        }
+        assertEquals(null, customerCache.get(OrderFixtures.email(0)));
+        pizzaService.createOrder(OrderFixtures.order(0, 3));
+        assertEquals("Street 0", customerRepository.findByEmail(OrderFixtures.email(0)).get().getAddress());
+    }
+
+    @Test
+    public void batchIdsFollowTheRequestOrderAcrossFlushes() {
+        List<OrderDTO> orders = OrderFixtures.orders(120);
+        List<Long> ids = pizzaService.createOrders(orders);
+        Map<Long, OrderDTO> created = pizzaService.findAllOrders().stream().collect(Collectors.toMap(OrderDTO::getId, order -> order));
+        assertEquals(orders.size(), ids.size());
+        for (int i = 0; i < orders.size(); i++) {
+            OrderDTO order = created.get(ids.get(i));
+            assertEquals(orders.get(i).getBusinessKey(), order.getBusinessKey());
+            assertEquals(orders.get(i).getCustomer().getEmail(), order.getCustomer().getEmail());
+        }
+        assertEquals(3, customerRepository.count());
+        assertEquals(3, created.values().stream().map(order -> order.getCustomer().getId()).distinct().count());
+    }
+
+    @Test
+    public void batchResolvesCustomersWithAFixedNumberOfLookups() {
+        pizzaService.createOrders(OrderFixtures.orders(3));
+        statistics.clear();
+        pizzaService.createOrders(OrderFixtures.orders(60, 6));
+        assertEquals(2, statistics.getQueryExecutionCount());
+        statistics.clear();
+        pizzaService.createOrders(OrderFixtures.orders(200, 6));
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(6, customerRepository.count());
+    }
+
+    @Test
+    public void batchKeepsTheLastDetailsOfARepeatedCustomer() {
+        List<OrderDTO> orders = OrderFixtures.orders(2, 1);
+        orders.get(1).getCustomer().setAddress("Bahnhofstrasse 6");
+        pizzaService.createOrders(orders);
+        assertEquals(1, customerRepository.count());
+        assertEquals("Bahnhofstrasse 6", customerRepository.findByEmail(OrderFixtures.email(0)).get().getAddress());
+    }
+
+    @Test
+    public void batchLooksUpARepeatedNewAttributeOnce() {
+        pizzaService.createOrders(OrderFixtures.orders(3));
+        List<OrderDTO> orders = OrderFixtures.orders(60);
+        String topping = "Truffle " + System.nanoTime();
+        orders.forEach(order -> order.setPizzaTopping(topping));
+        statistics.clear();
+        pizzaService.createOrders(orders);
+        assertEquals(2, statistics.getQueryExecutionCount());
+        assertEquals(topping, pizzaService.findAllOrders().get(3).getPizzaTopping());
+    }
+
+    @Test
+    public void unknownCodesAreFetchedById() {
+        PizzaAttributeEntity first = pizzaAttributeRepository.save(new PizzaAttributeEntity(PizzaAttribute.TOPPING, "Capers " + System.nanoTime()));
+        PizzaAttributeEntity second = pizzaAttributeRepository.save(new PizzaAttributeEntity(PizzaAttribute.TOPPING, "Anchovies " + System.nanoTime()));
+        statistics.clear();
+        assertEquals(first.getName(), pizzaCatalog.decode(first.getId()));
+        assertEquals(second.getName(), pizzaCatalog.decode(second.getId()));
+        assertEquals(first.getName(), pizzaCatalog.decode(first.getId()));
+        assertEquals(null, pizzaCatalog.decode(-1));
+        assertEquals(0, statistics.getQueryExecutionCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void orderPagesFollowTheCursorWithoutGapsOrDuplicates() {
+        createOrders(6);
+        List<Long> ids = orderRepository.findAll().stream().map(OrderEntity::getId).sorted().collect(Collectors.toList());
+        List<Long> walked = new ArrayList<>();
+        int pages = 0;
+        Long after = 0L;
+        while (after != null) {
+            OrderPageDTO page = pizzaService.findOrderPage(null, false, after, 3);
+            page.getOrders().forEach(order -> walked.add(order.getId()));
+            if (page.getNext() != null)
+                assertEquals(walked.get(walked.size() - 1), page.getNext());
+            after = page.getNext();
+            pages++;
+        }
+        assertEquals(ids, walked);
+        assertEquals(2, pages);
+    }
+
+    @Test
+    public void orderListsUseFixedStatementCount() {
+        createOrders(20);
+        assertEquals(1, statementsOf(() -> pizzaService.findAllOrders()));
+        assertEquals(1, statementsOf(() -> pizzaService.findAllUnpaidOrders()));
+        assertEquals(1, statementsOf(() -> pizzaService.findAllOrdersOfCustomer(OrderFixtures.email(1))));
+        assertEquals(1, statementsOf(() -> pizzaService.findAllUnpaidOrdersCustomer(OrderFixtures.email(1))));
+    }
+
+    @Test
+    public void orderListsLoadNoEntities() {
+        createOrders(20);
+        statistics.clear();
+        List<OrderDTO> orders = pizzaService.findAllOrders();
+        pizzaService.findAllUnpaidOrders();
+        pizzaService.findOrderPage(OrderFixtures.email(1), false, 0, 100);
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(20, orders.size());
+        assertEquals(OrderFixtures.email(0), orders.get(0).getCustomer().getEmail());
+        assertEquals("12.50", orders.get(0).getPayment().getPayment());
+        assertEquals(null, orders.get(1).getPayment());
+        assertEquals("Margherita", orders.get(0).getPizzaType());
+        assertSame(orders.get(0).getPizzaType(), orders.get(1).getPizzaType());
+    }
+
+    @Test
+    public void paymentMovesOrderFromOpenToPaid() {
+        createOrders(6);
+        assertEquals(3, pizzaService.countUnpaidOrders(null));
+        assertEquals(1, pizzaService.countUnpaidOrders(OrderFixtures.email(1)));
+        OrderDTO unpaid = pizzaService.findAllUnpaidOrders().get(0);
+        assertEquals("OPEN", unpaid.getStatus());
+        PaymentDTO payment = new PaymentDTO();
+        payment.setPayment("9.50");
+        pizzaService.updatePaymentOfOrder(payment, unpaid.getBusinessKey());
+        assertEquals(2, pizzaService.countUnpaidOrders(null));
+        assertEquals("PAID", pizzaService.readOrder(unpaid.getId()).getStatus());
+    }
+
+    @Test
+    public void settlementsAreMatchedByBusinessKey() {
+        createOrders(4);
+        String unpaid = pizzaService.findAllUnpaidOrders().get(0).getBusinessKey();
+        String paid = pizzaService.findAllOrders().stream().filter(order -> "PAID".equals(order.getStatus())).findFirst().get().getBusinessKey();
+        List<SettlementResultDTO> results = pizzaService.settlePayments(Arrays.asList(
+                settlement(unpaid), settlement(paid), settlement("unknown"), settlement(unpaid)));
+        assertEquals(SettlementResultDTO.MATCHED, results.get(0).getResult());
+        assertEquals(SettlementResultDTO.ALREADY_PAID, results.get(1).getResult());
+        assertEquals(SettlementResultDTO.UNKNOWN, results.get(2).getResult());
+        assertEquals(SettlementResultDTO.ALREADY_PAID, results.get(3).getResult());
+        assertEquals(results.get(0).getPaymentId(), results.get(3).getPaymentId());
+        assertEquals(1, pizzaService.countUnpaidOrders(null));
+    }
+
+    @Test
+    public void revenueIsAggregatedFromNumericPrices() {
+        createOrders(5);
+        List<RevenueDTO> all = pizzaService.revenueByPizzaSize(false, null, null);
+        assertEquals(2, all.size());
+        assertEquals("L", all.get(0).getKey());
+        assertEquals(3, all.get(0).getOrders());
+        assertEquals(new BigDecimal("37.50"), all.get(0).getRevenue());
+        assertEquals(new BigDecimal("19.00"), all.get(1).getRevenue());
+        List<RevenueDTO> paid = pizzaService.revenueByPizzaType(true, null, null);
+        assertEquals(1, paid.size());
+        assertEquals(new BigDecimal("37.50"), paid.get(0).getRevenue());
+        assertEquals(1, pizzaService.revenueByDay(false, null, null).size());
+    }
+
+    @Test
+    public void revenueCountsThePricesItCannotRead() {
+        for (String price : new String[]{"1,234.50", "CHF 12.-", "on the house"}) {
+            OrderDTO order = OrderFixtures.order("revenue@example.com");
+            order.setPizzaPrice(price);
+            pizzaService.createOrder(order);
+        }
+        RevenueDTO revenue = pizzaService.revenueByPizzaSize(false, null, null).get(0);
+        assertEquals(3, revenue.getOrders());
+        assertEquals(new BigDecimal("1246.50"), revenue.getRevenue());
+        assertEquals(1, revenue.getUnparsed());
+    }
+
+    @Test
+    public void committedChangesAreStreamedAndReplayedAfterLastEventId() throws InterruptedException {
+        BlockingQueue<OrderEventDTO> events = new LinkedBlockingQueue<>();
+        Runnable unsubscribe = orderEventService.subscribe(null, events::add, () -> {});
+        createOrders(1);
+        OrderEventDTO created = events.poll(5, TimeUnit.SECONDS);
+        OrderEventDTO paid = events.poll(5, TimeUnit.SECONDS);
+        unsubscribe.run();
+        assertEquals(OrderEventDTO.ORDER_CREATED, created.getType());
+        assertEquals(OrderEventDTO.PAYMENT_ATTACHED, paid.getType());
+        assertEquals(created.getOrderId(), paid.getOrderId());
+        BlockingQueue<OrderEventDTO> resumed = new LinkedBlockingQueue<>();
+        unsubscribe = orderEventService.subscribe(created.getId(), resumed::add, () -> {});
+        assertEquals(paid.getId(), resumed.poll(5, TimeUnit.SECONDS).getId());
+        unsubscribe.run();
+        BlockingQueue<OrderEventDTO> outdated = new LinkedBlockingQueue<>();
+        unsubscribe = orderEventService.subscribe(0L, outdated::add, () -> {});
+        assertEquals(OrderEventDTO.RESYNC, outdated.poll(5, TimeUnit.SECONDS).getType());
+        unsubscribe.run();
+    }
+
+    @Test
+    public void duplicateIdempotentRequestsShareTheFirstResult() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> first = executor.submit(() -> idempotencyService.execute("test:duplicate", "request", () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return 42;
+            }));
+            started.await();
+            Future<Long> duplicate = executor.submit(() -> idempotencyService.execute("test:duplicate", "request", runs::incrementAndGet));
+            release.countDown();
+            assertEquals(42, (long) first.get(5, TimeUnit.SECONDS));
+            assertEquals(42, (long) duplicate.get(5, TimeUnit.SECONDS));
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IdempotencyKeyConflictException.class)
+    public void idempotencyKeyCannotBeReusedForAnotherRequest() {
+        idempotencyService.execute("test:conflict", "request", () -> 1);
+        idempotencyService.execute("test:conflict", "other request", () -> 2);
+    }
+
+    @Test
+    public void customerInsertConflictKeepsTheTransactionUsable() {
+        createOrders(1);
+        new TransactionTemplate(transactionManager).execute(status -> {
+            CustomerEntity duplicate = new CustomerEntity();
+            duplicate.setEmail(OrderFixtures.email(0));
+            assertFalse(uniqueInsert.insert(duplicate));
+            assertEquals(1, customerRepository.count());
+            return null;
+        });
+        assertEquals(1, customerRepository.count());
+    }
+
+    @Test(expected = DataIntegrityViolationException.class)
+    public void duplicateBusinessKeyIsRejected() {
+        createOrders(1);
+        OrderDTO duplicate = pizzaService.findAllOrders().get(0);
+        duplicate.setId(0);
+        duplicate.setPayment(null);
+        pizzaService.createOrder(duplicate);
+    }
+
+    @Test
+    public void versionsChangeWithTheResourcesTheyDescribe() {
+        createOrders(2);
+        OrderDTO unpaid = pizzaService.findAllUnpaidOrders().get(0);
+        String orderVersion = pizzaService.readOrderVersion(unpaid.getId());
+        String listVersion = pizzaService.findOrderPage(null, false, 0, 100).getVersion();
+        String unpaidVersion = pizzaService.findOrderPage(null, true, 0, 100).getVersion();
+        statistics.clear();
+        assertEquals(orderVersion, pizzaService.readOrderVersion(unpaid.getId()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(null, pizzaService.readOrderVersion(-1));
+        PaymentDTO payment = new PaymentDTO();
+        payment.setPayment("9.50");
+        pizzaService.updatePaymentOfOrder(payment, unpaid.getBusinessKey());
+        assertNotEquals(orderVersion, pizzaService.readOrderVersion(unpaid.getId()));
+        assertNotEquals(listVersion, pizzaService.findOrderPage(null, false, 0, 100).getVersion());
+        assertNotEquals(unpaidVersion, pizzaService.findOrderPage(null, true, 0, 100).getVersion());
+        String firstPage = pizzaService.findOrderPage(null, false, 0, 1).getVersion();
+        createOrders(1);
+        assertEquals(firstPage, pizzaService.findOrderPage(null, false, 0, 1).getVersion());
+    }
+
+    @Test
+    public void repeatReadsAreServedFromCacheUntilUpdated() {
+        createOrders(1);
+        long id = orderRepository.findAll().get(0).getId();
+        OrderDTO order = pizzaService.readOrder(id);
+        statistics.clear();
+        order.setPizzaType("Changed");
+        assertEquals("Margherita", pizzaService.readOrder(id).getPizzaType());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        long paymentId = order.getPayment().getId();
+        PaymentDTO payment = pizzaService.readPayment(paymentId);
+        payment.setPayment("20.00");
+        payment.setOrder(null);
+        pizzaService.updatePayment(payment);
+        assertEquals("20.00", pizzaService.readOrder(id).getPayment().getPayment());
+        assertEquals("20.00", pizzaService.readPayment(paymentId).getPayment());
+    }
+
+    @Test
+    public void readerCommittingAfterAnUpdateDoesNotCacheTheReplacedState() throws Exception {
+        createOrders(1);
+        long id = orderRepository.findAll().get(0).getId();
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            new TransactionTemplate(transactionManager).execute(status -> {
+                PaymentDTO payment = pizzaService.readPayment(pizzaService.readOrder(id).getPayment().getId());
+                payment.setPayment("20.00");
+                payment.setOrder(null);
+                try {
+                    writer.submit(() -> pizzaService.updatePayment(payment)).get(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return null;
+            });
+        } finally {
+            writer.shutdownNow();
+        }
+        OrderDTO order = pizzaService.readOrder(id);
+        assertEquals("20.00", order.getPayment().getPayment());
+        assertEquals("20.00", pizzaService.readPayment(order.getPayment().getId()).getPayment());
+    }
+
+    @Test
+    public void versionReaderCommittingAfterAnUpdateDoesNotCacheTheReplacedTag() throws Exception {
+        createOrders(2);
+        OrderDTO unpaid = pizzaService.findAllUnpaidOrders().get(0);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        String stale;
+        try {
+            stale = new TransactionTemplate(transactionManager).execute(status -> {
+                String version = pizzaService.readOrderVersion(unpaid.getId());
+                PaymentDTO payment = new PaymentDTO();
+                payment.setPayment("9.50");
+                try {
+                    writer.submit(() -> pizzaService.updatePaymentOfOrder(payment, unpaid.getBusinessKey())).get(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return version;
+            });
+        } finally {
+            writer.shutdownNow();
+        }
+        assertNotEquals(stale, pizzaService.readOrderVersion(unpaid.getId()));
+    }
+
+    @Test
+    public void notModifiedPagesAreNotMapped() {
+        createOrders(2);
+        String version = pizzaService.findOrderPage(null, false, 0, 100).getVersion();
+        OrderPageDTO page = pizzaService.findOrderPage(null, false, 0, 100, version::equals);
+        assertEquals(version, page.getVersion());
+        assertEquals(null, page.getOrders());
+        assertEquals(2, pizzaService.findOrderPage(null, false, 0, 100, "other"::equals).getOrders().size());
+    }
+
+    private long statementsOf(Supplier<List<OrderDTO>> query) {
+        statistics.clear();
+        int size = query.get().size();
+        assertEquals(true, size > 0);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createOrders(int count) {
+        for (OrderDTO order : OrderFixtures.orders(count)) {
+            order = pizzaService.createOrder(order);
+            if ("L".equals(order.getPizzaSize())) {
+                PaymentDTO payment = new PaymentDTO();
+                payment.setPayment("12.50");
+                pizzaService.updatePaymentOfOrder(payment, order.getBusinessKey());
+            }
+        }
+    }
+
+    private static SettlementDTO settlement(String businessKey) {
+        SettlementDTO settlement = new SettlementDTO();
+        settlement.setBusinessKey(businessKey);
+        settlement.setPayment("9.50");
+        return settlement;
+    }
+}
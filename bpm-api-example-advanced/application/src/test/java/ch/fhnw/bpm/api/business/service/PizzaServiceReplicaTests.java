@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import ch.fhnw.bpm.api.business.dto.OrderDTO;
+import ch.fhnw.bpm.api.business.dto.OrderFixtures;
+import ch.fhnw.bpm.api.business.dto.PaymentDTO;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Runs against two H2 databases, where the replica only has the schema and so behaves like a replica that has not
+ * caught up with any write yet.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.datasource.url=" + PizzaServiceReplicaTests.PRIMARY_URL,
+        "bpm.datasource.replica.url=" + PizzaServiceReplicaTests.REPLICA_URL})
+public class PizzaServiceReplicaTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:lagging-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:lagging-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private PizzaService pizzaService;
+
+    @Test
+    public void cachedReadsDoNotComeFromALaggingReplica() {
+        OrderDTO order = OrderFixtures.order("replica@example.com");
+        long id = pizzaService.createOrder(order).getId();
+        assertEquals(0, pizzaService.countUnpaidOrders(null));
+        String version = pizzaService.readOrderVersion(id);
+        assertEquals("OPEN", pizzaService.readOrder(id).getStatus());
+        PaymentDTO payment = new PaymentDTO();
+        payment.setPayment("12.50");
+        pizzaService.updatePaymentOfOrder(payment, order.getBusinessKey());
+        OrderDTO paid = pizzaService.readOrder(id);
+        assertEquals("PAID", paid.getStatus());
+        assertNotEquals(version, pizzaService.readOrderVersion(id));
+        assertEquals("12.50", pizzaService.readPayment(paid.getPayment().getId()).getPayment());
+    }
+
+    // copies the schema before anything reads from the replica, its data stays empty
+    @TestConfiguration
+    static class ReplicaSchema implements ApplicationListener<ContextRefreshedEvent>, Ordered {
+
+        @Override
+        public void onApplicationEvent(ContextRefreshedEvent event) {
+            try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+                 Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+                 Statement script = primary.createStatement();
+                 ResultSet statements = script.executeQuery("SCRIPT NODATA");
+                 Statement target = replica.createStatement()) {
+                while (statements.next()) {
+                    String sql = statements.getString(1);
+                    if (!sql.startsWith("CREATE USER"))
+                        target.execute(sql);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
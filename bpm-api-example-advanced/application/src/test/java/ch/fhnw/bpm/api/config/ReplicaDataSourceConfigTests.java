@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.config;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReplicaDataSourceConfigTests {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica";
+
+    private DataSource dataSource;
+    private TransactionTemplate transaction;
+
+    @Before
+    public void setUp() throws Exception {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(PRIMARY_URL);
+        properties.afterPropertiesSet();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("bpm.datasource.replica.url", REPLICA_URL)
+                .withProperty("bpm.datasource.replica.hikari.maximum-pool-size", "2");
+        dataSource = new ReplicaDataSourceConfig().dataSource(properties, environment);
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @After
+    public void tearDown() {
+        ((ReplicaDataSourceConfig.ReadWriteDataSource) dataSource).close();
+    }
+
+    @Test
+    public void readOnlyTransactionsUseTheReplica() {
+        transaction.setReadOnly(true);
+        assertEquals(REPLICA_URL, transaction.execute(status -> url()));
+    }
+
+    @Test
+    public void readWriteTransactionsUseThePrimary() {
+        assertEquals(PRIMARY_URL, transaction.execute(status -> url()));
+        transaction.setReadOnly(true);
+        assertEquals(REPLICA_URL, transaction.execute(status -> url()));
+        transaction.setReadOnly(false);
+        assertEquals(PRIMARY_URL, transaction.execute(status -> url()));
+    }
+
+    private String url() {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return connection.getMetaData().getURL();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.data.domain;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MinorUnitsTests {
+
+    @Test
+    public void decimalMarkIsPointOrComma() {
+        assertEquals(Long.valueOf(1250), MinorUnits.parse("12.50"));
+        assertEquals(Long.valueOf(1250), MinorUnits.parse("12,50"));
+        assertEquals(Long.valueOf(1250), MinorUnits.parse("CHF 12.50"));
+        assertEquals(Long.valueOf(1250), MinorUnits.parse("12.5"));
+        assertEquals(Long.valueOf(50), MinorUnits.parse(".50"));
+    }
+
+    @Test
+    public void thousandsSeparatorsAreDropped() {
+        assertEquals(Long.valueOf(123450), MinorUnits.parse("1,234.50"));
+        assertEquals(Long.valueOf(123450), MinorUnits.parse("1.234,50"));
+        assertEquals(Long.valueOf(123450), MinorUnits.parse("CHF 1'234.50"));
+        assertEquals(Long.valueOf(123400), MinorUnits.parse("1,234"));
+        assertEquals(Long.valueOf(123456700), MinorUnits.parse("1.234.567"));
+    }
+
+    @Test
+    public void dashSuffixMeansAWholeAmount() {
+        assertEquals(Long.valueOf(1200), MinorUnits.parse("CHF 12.-"));
+        assertEquals(Long.valueOf(1200), MinorUnits.parse("12,--"));
+        assertEquals(Long.valueOf(123400), MinorUnits.parse("1'234.-"));
+    }
+
+    @Test
+    public void unreadableAmountsAreNull() {
+        assertNull(MinorUnits.parse(null));
+        assertNull(MinorUnits.parse("free"));
+        assertNull(MinorUnits.parse("12.5.0"));
+        assertNull(MinorUnits.parse("1,23,456"));
+        assertNull(MinorUnits.parse("12-"));
+    }
+}
@@ -0,0 +1,12 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication(scanBasePackages = {"ch.fhnw.bpm.api.business.dto", "ch.fhnw.bpm.api.business.service"})
+public class BenchmarkApplication {
+}
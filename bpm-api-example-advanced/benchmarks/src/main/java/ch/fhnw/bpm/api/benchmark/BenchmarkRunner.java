@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Entry point of the benchmark jar. Accepts the regular JMH command line and always adds the GC profiler, so every
+ * run reports allocation per operation next to throughput, and writes the results to {@code jmh-result.json}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp()) {
+            commandLineOptions.showHelp();
+            return;
+        }
+        if (commandLineOptions.shouldList()) {
+            new Runner(commandLineOptions).list();
+            return;
+        }
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLineOptions);
+        options.addProfiler(GCProfiler.class);
+        if (!commandLineOptions.getResult().hasValue())
+            options.result("jmh-result.json");
+        if (!commandLineOptions.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.JSON);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.benchmark;
+
+import ch.fhnw.bpm.api.BenchmarkApplication;
+import ch.fhnw.bpm.api.business.dto.OrderDTO;
+import ch.fhnw.bpm.api.business.dto.OrderFixtures;
+import ch.fhnw.bpm.api.business.service.PizzaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateOrderBenchmark {
+
+    private static final int CUSTOMERS = 1000;
+    private static final int BATCH = 100;
+
+    @Param({"1", "50"})
+    public int allocationSize;
+
+    private ConfigurableApplicationContext context;
+    private PizzaService pizzaService;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.properties.bpm.id.allocation_size=" + allocationSize,
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "logging.level.root=warn")
+                .run();
+        pizzaService = context.getBean(PizzaService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderDTO createOrder() {
+        return pizzaService.createOrder(nextOrder());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Long> createOrders() {
+        List<OrderDTO> orders = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            orders.add(nextOrder());
+        }
+        return pizzaService.createOrders(orders);
+    }
+
+    private OrderDTO nextOrder() {
+        return OrderFixtures.order(sequence++, CUSTOMERS);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.benchmark;
+
+import ch.fhnw.bpm.api.business.dto.*;
+import ch.fhnw.bpm.api.business.service.PizzaCatalog;
+import ch.fhnw.bpm.api.data.domain.OrderEntity;
+import ch.fhnw.bpm.api.data.domain.PaymentEntity;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity and DTO conversion through the generated {@link OrderMapper} and {@link PaymentMapper}, including the
+ * pizza attribute lookups in {@link PizzaCatalog}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityMapperBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int size;
+
+    private ConfigurableApplicationContext context;
+    private OrderMapper orderMapper;
+    private PaymentMapper paymentMapper;
+
+    private List<OrderEntity> orderEntities;
+    private OrderEntity orderEntity;
+    private OrderDTO orderDTO;
+    private PaymentEntity paymentEntity;
+    private PaymentDTO paymentDTO;
+
+    @Setup
+    public void setUp() {
+        context = Fixtures.context();
+        orderMapper = context.getBean(OrderMapper.class);
+        paymentMapper = context.getBean(PaymentMapper.class);
+        PizzaCatalog catalog = context.getBean(PizzaCatalog.class);
+        orderEntities = Fixtures.orderEntities(size, catalog);
+        orderEntity = Fixtures.orderEntity(0, catalog);
+        orderDTO = orderMapper.entityToDto(orderEntity);
+        paymentEntity = orderEntity.getPayment();
+        paymentDTO = paymentMapper.entityToDto(paymentEntity);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderDTO> entitiesToDtos() {
+        return orderMapper.entitiesToDtos(orderEntities);
+    }
+
+    @Benchmark
+    public OrderDTO orderEntityToDto() {
+        return orderMapper.entityToDto(orderEntity);
+    }
+
+    @Benchmark
+    public OrderEntity orderDtoToEntity() {
+        return orderMapper.dtoToEntity(orderDTO);
+    }
+
+    @Benchmark
+    public PaymentDTO paymentEntityToDto() {
+        return paymentMapper.entityToDto(paymentEntity);
+    }
+
+    @Benchmark
+    public PaymentEntity paymentDtoToEntity() {
+        return paymentMapper.dtoToEntity(paymentDTO);
+    }
+}
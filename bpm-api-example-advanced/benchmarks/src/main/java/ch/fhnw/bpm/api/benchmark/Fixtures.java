@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.benchmark;
+
+import ch.fhnw.bpm.api.BenchmarkApplication;
+import ch.fhnw.bpm.api.business.service.PizzaCatalog;
+import ch.fhnw.bpm.api.data.domain.CustomerEntity;
+import ch.fhnw.bpm.api.data.domain.OrderEntity;
+import ch.fhnw.bpm.api.data.domain.PaymentEntity;
+import ch.fhnw.bpm.api.data.domain.PizzaAttribute;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static ConfigurableApplicationContext context() {
+        return new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.properties.hibernate.cache.use_second_level_cache=false", "logging.level.root=warn")
+                .run();
+    }
+
+    static List<OrderEntity> orderEntities(int count, PizzaCatalog catalog) {
+        List<OrderEntity> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(orderEntity(i, catalog));
+        }
+        return orders;
+    }
+
+    static OrderEntity orderEntity(long id, PizzaCatalog catalog) {
+        CustomerEntity customer = new CustomerEntity();
+        customer.setId(id % 100);
+        customer.setFirstName("First");
+        customer.setLastName("Last");
+        customer.setAddress("Street " + id % 100);
+        customer.setEmail("customer" + id % 100 + "@example.com");
+        OrderEntity order = new OrderEntity();
+        order.setId(id);
+        order.setPizzaTypeCode(catalog.encode(PizzaAttribute.TYPE, "Margherita"));
+        order.setPizzaSizeCode(catalog.encode(PizzaAttribute.SIZE, "L"));
+        order.setPizzaSauceCode(catalog.encode(PizzaAttribute.SAUCE, "Tomato"));
+        order.setPizzaCrustCode(catalog.encode(PizzaAttribute.CRUST, "Thin"));
+        order.setPizzaToppingCode(catalog.encode(PizzaAttribute.TOPPING, "Basil"));
+        order.setPizzaPrice("12.50");
+        order.setBusinessKey("bk-" + id);
+        order.setCustomer(customer);
+        if (id % 2 == 0) {
+            PaymentEntity payment = new PaymentEntity();
+            payment.setId(id);
+            payment.setPayment("12.50");
+            payment.setReceipt(true);
+            payment.setOrder(order);
+            order.setPayment(payment);
+        }
+        return order;
+    }
+}
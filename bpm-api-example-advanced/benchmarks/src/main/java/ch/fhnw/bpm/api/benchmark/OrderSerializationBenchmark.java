@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.benchmark;
+
+import ch.fhnw.bpm.api.business.dto.OrderDTO;
+import ch.fhnw.bpm.api.business.dto.OrderMapper;
+import ch.fhnw.bpm.api.business.service.PizzaCatalog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of order lists as written by the order list endpoint, using the same builder defaults as
+ * Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderSerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<OrderDTO> orders;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writerFor(List.class);
+        try (ConfigurableApplicationContext context = Fixtures.context()) {
+            orders = context.getBean(OrderMapper.class).entitiesToDtos(Fixtures.orderEntities(size, context.getBean(PizzaCatalog.class)));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeOrders() throws JsonProcessingException {
+        return writer.writeValueAsBytes(orders);
+    }
+}
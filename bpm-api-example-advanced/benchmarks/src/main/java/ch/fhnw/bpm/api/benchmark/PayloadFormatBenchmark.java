@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.benchmark;
+
+import ch.fhnw.bpm.api.business.dto.OrderDTO;
+import ch.fhnw.bpm.api.business.dto.OrderMapper;
+import ch.fhnw.bpm.api.business.service.PizzaCatalog;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of order lists in the wire formats offered by the order endpoints. The encoded size of each
+ * payload is reported next to the scores as the {@code encodedBytes} counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"1", "100", "1000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<OrderDTO> orders;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = builder(format).build();
+        writer = objectMapper.writerFor(new TypeReference<List<OrderDTO>>() {});
+        reader = objectMapper.readerFor(new TypeReference<List<OrderDTO>>() {});
+        try (ConfigurableApplicationContext context = Fixtures.context()) {
+            orders = context.getBean(OrderMapper.class).entitiesToDtos(Fixtures.orderEntities(size, context.getBean(PizzaCatalog.class)));
+        }
+        payload = writer.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] encode(EncodedSize encodedSize) throws IOException {
+        byte[] encoded = writer.writeValueAsBytes(orders);
+        encodedSize.encodedBytes = encoded.length;
+        return encoded;
+    }
+
+    @Benchmark
+    public List<OrderDTO> decode(EncodedSize encodedSize) throws IOException {
+        encodedSize.encodedBytes = payload.length;
+        return reader.readValue(payload);
+    }
+
+    // an events counter is reported as the value it holds at the end of the iteration, not as a rate
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+        public long encodedBytes;
+    }
+
+    private static Jackson2ObjectMapperBuilder builder(String format) {
+        switch (format) {
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor();
+            case "smile":
+                return Jackson2ObjectMapperBuilder.smile();
+            default:
+                return Jackson2ObjectMapperBuilder.json();
+        }
+    }
+}
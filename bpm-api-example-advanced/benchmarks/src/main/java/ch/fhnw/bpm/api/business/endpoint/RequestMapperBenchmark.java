@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.endpoint;
+
+import ch.fhnw.bpm.api.business.dto.CustomerDTO;
+import ch.fhnw.bpm.api.business.dto.OrderDTO;
+import ch.fhnw.bpm.api.business.dto.PaymentDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reflective ModelMapper request conversion previously used by {@link PizzaEndpoint} with the generated
+ * {@link RequestMapper}. Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestMapperBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final RequestMapper requestMapper = new RequestMapperImpl();
+
+    private OrderRequest orderRequest;
+    private PaymentRequest paymentRequest;
+
+    @Setup
+    public void setUp() {
+        orderRequest = new OrderRequest();
+        orderRequest.setPizzaType("Margherita");
+        orderRequest.setPizzaSize("L");
+        orderRequest.setPizzaSauce("Tomato");
+        orderRequest.setPizzaCrust("Thin");
+        orderRequest.setPizzaTopping("Basil");
+        orderRequest.setPizzaPrice("12.50");
+        orderRequest.setBusinessKey("bk-1");
+        orderRequest.setFirstName("First");
+        orderRequest.setLastName("Last");
+        orderRequest.setAddress("Street 1");
+        orderRequest.setEmail("customer@example.com");
+        paymentRequest = new PaymentRequest();
+        paymentRequest.setPayment("12.50");
+        paymentRequest.setReceipt(true);
+    }
+
+    @Benchmark
+    public OrderDTO orderModelMapper() {
+        CustomerDTO customerDTO = modelMapper.map(orderRequest, CustomerDTO.class);
+        OrderDTO orderDTO = modelMapper.map(orderRequest, OrderDTO.class);
+        orderDTO.setCustomer(customerDTO);
+        return orderDTO;
+    }
+
+    @Benchmark
+    public OrderDTO orderMapStruct() {
+        return requestMapper.requestToDto(orderRequest);
+    }
+
+    @Benchmark
+    public PaymentDTO paymentModelMapper() {
+        return modelMapper.map(paymentRequest, PaymentDTO.class);
+    }
+
+    @Benchmark
+    public PaymentDTO paymentMapStruct() {
+        return requestMapper.requestToDto(paymentRequest);
+    }
+}
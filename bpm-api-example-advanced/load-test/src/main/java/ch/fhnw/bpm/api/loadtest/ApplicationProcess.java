@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.loadtest;
+
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The packaged application started in its own JVM on the embedded in-memory H2 database.
+ */
+class ApplicationProcess implements AutoCloseable {
+
+    private static final long STARTUP_TIMEOUT_SECONDS = 120;
+
+    private final Process process;
+    private final String baseUrl;
+
+    private ApplicationProcess(Process process, String baseUrl) {
+        this.process = process;
+        this.baseUrl = baseUrl;
+    }
+
+    static ApplicationProcess start(LoadTestConfig config, RestTemplate restTemplate, String... arguments) throws IOException, InterruptedException {
+        File jar = new File(config.getJar());
+        if (!jar.isFile())
+            throw new IllegalStateException("Application jar not found: " + jar.getAbsolutePath());
+        return start(config, restTemplate, Arrays.asList("-jar", jar.getAbsolutePath()), arguments);
+    }
+
+    static ApplicationProcess start(LoadTestConfig config, RestTemplate restTemplate, List<String> launch, String... arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(new File(config.getJavaHome(), "bin/java").getPath());
+        if (!config.getJvmArgs().trim().isEmpty())
+            command.addAll(Arrays.asList(config.getJvmArgs().trim().split("\\s+")));
+        command.addAll(launch);
+        command.add("--server.port=" + config.getPort());
+        command.add("--logging.level.root=warn");
+        command.addAll(Arrays.asList(arguments));
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(config.getDirectory(), "application.log"))
+                .start();
+        ApplicationProcess application = new ApplicationProcess(process, "http://localhost:" + config.getPort());
+        application.awaitHealthy(restTemplate);
+        return application;
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    long getResidentSetKilobytes() throws IOException {
+        File status = new File("/proc/" + pid() + "/status");
+        if (!status.isFile())
+            return -1;
+        for (String line : Files.readAllLines(status.toPath())) {
+            if (line.startsWith("VmRSS:"))
+                return Long.parseLong(line.replaceAll("\\D", ""));
+        }
+        return -1;
+    }
+
+    private long pid() {
+        try {
+            return (Long) Process.class.getMethod("pid").invoke(process);
+        } catch (NoSuchMethodException e) {
+            try {
+                Field pid = process.getClass().getDeclaredField("pid");
+                pid.setAccessible(true);
+                return pid.getInt(process);
+            } catch (ReflectiveOperationException unsupported) {
+                throw new IllegalStateException("Cannot determine the application process id", unsupported);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot determine the application process id", e);
+        }
+    }
+
+    private void awaitHealthy(RestTemplate restTemplate) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STARTUP_TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive())
+                throw new IllegalStateException("Application exited with code " + process.exitValue() + ", see application.log");
+            try {
+                restTemplate.getForEntity(baseUrl + "/actuator/health", String.class);
+                return;
+            } catch (RestClientException e) {
+                Thread.sleep(100);
+            }
+        }
+        close();
+        throw new IllegalStateException("Application did not become healthy within " + STARTUP_TIMEOUT_SECONDS + "s");
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS))
+            process.destroyForcibly();
+    }
+}
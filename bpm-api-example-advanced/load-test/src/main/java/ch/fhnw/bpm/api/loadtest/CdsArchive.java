@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.loadtest;
+
+import org.springframework.web.client.RestTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Application class-data sharing archive for the packaged application. CDS only reads classes from plain jars on the
+ * class path, not from the jars nested in the Spring Boot jar, so the jar is unpacked into {@code cds/} first and the
+ * application is started from there by its main class. The archive is recorded by a training run that starts the
+ * application and serves one request; dumping it with {@code -XX:ArchiveClassesAtExit} needs Java 13 or newer.
+ */
+class CdsArchive {
+
+    private static final String CLASSES = "BOOT-INF/classes/";
+    private static final String LIB = "BOOT-INF/lib/";
+
+    private final String classPath;
+    private final String mainClass;
+    private final File archive;
+
+    private CdsArchive(String classPath, String mainClass, File archive) {
+        this.classPath = classPath;
+        this.mainClass = mainClass;
+        this.archive = archive;
+    }
+
+    static boolean isSupported(LoadTestConfig config) throws IOException {
+        File release = new File(config.getJavaHome(), "release");
+        if (!release.isFile())
+            return false;
+        for (String line : Files.readAllLines(release.toPath(), StandardCharsets.UTF_8)) {
+            if (line.startsWith("JAVA_VERSION=")) {
+                String version = line.substring("JAVA_VERSION=".length()).replace("\"", "");
+                return !version.startsWith("1.") && Integer.parseInt(version.split("[.+-]")[0]) >= 13;
+            }
+        }
+        return false;
+    }
+
+    static CdsArchive create(LoadTestConfig config, RestTemplate restTemplate, List<String> jvmArgs, String... arguments) throws IOException, InterruptedException {
+        File directory = new File(config.getDirectory(), "cds");
+        delete(directory);
+        File lib = new File(directory, "lib");
+        if (!lib.mkdirs())
+            throw new IOException("Cannot create " + lib.getAbsolutePath());
+        File classes = new File(directory, "application.jar");
+        List<String> classPath = new ArrayList<>();
+        classPath.add(classes.getAbsolutePath());
+        String mainClass;
+        try (JarFile jar = new JarFile(config.getJar());
+             JarOutputStream out = new JarOutputStream(new FileOutputStream(classes))) {
+            mainClass = jar.getManifest().getMainAttributes().getValue("Start-Class");
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.isDirectory())
+                    continue;
+                if (entry.getName().startsWith(CLASSES)) {
+                    out.putNextEntry(new JarEntry(entry.getName().substring(CLASSES.length())));
+                    copy(jar, entry, out);
+                    out.closeEntry();
+                } else if (entry.getName().startsWith(LIB)) {
+                    File library = new File(lib, entry.getName().substring(LIB.length()));
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        Files.copy(in, library.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    classPath.add(library.getAbsolutePath());
+                }
+            }
+        }
+        CdsArchive cds = new CdsArchive(String.join(File.pathSeparator, classPath), mainClass, new File(directory, "application.jsa"));
+        List<String> training = new ArrayList<>(jvmArgs);
+        training.add("-XX:ArchiveClassesAtExit=" + cds.archive.getAbsolutePath());
+        training.addAll(cds.launch());
+        try (ApplicationProcess application = ApplicationProcess.start(config, restTemplate, training, arguments)) {
+            restTemplate.getForObject(application.getBaseUrl() + "/api/pizza/v1/order/unpaid/count", String.class);
+        }
+        if (!cds.archive.isFile())
+            throw new IllegalStateException("CDS archive was not written, see application.log");
+        return cds;
+    }
+
+    List<String> launch() {
+        return Arrays.asList("-cp", classPath, mainClass);
+    }
+
+    List<String> launchWithArchive() {
+        List<String> launch = new ArrayList<>();
+        launch.add("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+        launch.addAll(launch());
+        return launch;
+    }
+
+    private static void copy(JarFile jar, JarEntry entry, OutputStream out) throws IOException {
+        try (InputStream in = jar.getInputStream(entry)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private static void delete(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        if (file.exists() && !file.delete())
+            throw new IOException("Cannot delete " + file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seeds the application with synthetic customers, orders and payments, then drives a weighted mix of order and payment
+ * calls from concurrent clients and reports throughput and latency percentiles per operation to
+ * {@code load-test-report.json}.
+ */
+public class LoadTest {
+
+    private static final String API = "/api/pizza/v1";
+    private static final int SEED_BATCH = 500;
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> ID_LIST = new ParameterizedTypeReference<List<Map<String, Object>>>() {
+    };
+
+    private final LoadTestConfig config;
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    private final SyntheticData data;
+    private final Queue<String> unpaidBusinessKeys = new ConcurrentLinkedQueue<>();
+    private final AtomicLong businessKeySequence = new AtomicLong();
+    private long[] orderIds;
+
+    private LoadTest(LoadTestConfig config, RestTemplate restTemplate, String baseUrl) {
+        this.config = config;
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl + API;
+        this.data = new SyntheticData(config.getCustomers());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        try (CloseableHttpClient httpClient = HttpClients.custom()
+                .setMaxConnTotal(config.getClients() * 2)
+                .setMaxConnPerRoute(config.getClients() * 2)
+                .build()) {
+            RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+            try (ApplicationProcess application = ApplicationProcess.start(config, restTemplate)) {
+                LoadTest loadTest = new LoadTest(config, restTemplate, application.getBaseUrl());
+                long seedStart = System.nanoTime();
+                loadTest.seed();
+                long seedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart);
+                Map<Operation, Result> results = loadTest.run();
+                loadTest.report(results, seedMillis);
+            }
+        }
+    }
+
+    private void seed() throws InterruptedException, ExecutionException {
+        Random random = new Random(config.getSeed());
+        List<String> businessKeys = new ArrayList<>(config.getOrders());
+        List<Long> ids = new ArrayList<>(config.getOrders());
+        for (int offset = 0; offset < config.getOrders(); offset += SEED_BATCH) {
+            List<Map<String, Object>> batch = new ArrayList<>(SEED_BATCH);
+            for (int i = offset; i < Math.min(offset + SEED_BATCH, config.getOrders()); i++) {
+                String businessKey = nextBusinessKey();
+                businessKeys.add(businessKey);
+                batch.add(data.order(random, businessKey));
+            }
+            List<Map<String, Object>> created = restTemplate.exchange(baseUrl + "/order/batch", HttpMethod.POST, new HttpEntity<>(batch), ID_LIST).getBody();
+            for (Map<String, Object> response : created) {
+                ids.add(((Number) response.get("id")).longValue());
+            }
+        }
+        orderIds = ids.stream().mapToLong(Long::longValue).toArray();
+        int paid = (int) (config.getOrders() * config.getPaidRatio());
+        ExecutorService executor = Executors.newFixedThreadPool(config.getClients());
+        try {
+            List<Future<?>> payments = new ArrayList<>(paid);
+            for (int i = 0; i < paid; i++) {
+                String businessKey = businessKeys.get(i);
+                Map<String, Object> payment = data.payment(random);
+                payments.add(executor.submit(() -> restTemplate.postForEntity(baseUrl + "/payment/" + businessKey, payment, Map.class)));
+            }
+            for (Future<?> payment : payments) {
+                payment.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        unpaidBusinessKeys.addAll(businessKeys.subList(paid, businessKeys.size()));
+    }
+
+    private Map<Operation, Result> run() throws InterruptedException, ExecutionException {
+        long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+        long measureEnd = measureStart + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        ExecutorService executor = Executors.newFixedThreadPool(config.getClients());
+        List<Future<Map<Operation, Result>>> clients = new ArrayList<>(config.getClients());
+        try {
+            for (int client = 0; client < config.getClients(); client++) {
+                Random random = new Random(config.getSeed() + client + 1);
+                clients.add(executor.submit(() -> runClient(random, measureStart, measureEnd)));
+            }
+            Map<Operation, Result> results = new EnumMap<>(Operation.class);
+            for (Future<Map<Operation, Result>> client : clients) {
+                client.get().forEach((operation, result) -> results.computeIfAbsent(operation, o -> new Result()).add(result));
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Map<Operation, Result> runClient(Random random, long measureStart, long measureEnd) {
+        Map<Operation, Result> results = new EnumMap<>(Operation.class);
+        List<Operation> operations = new ArrayList<>();
+        config.getMix().forEach((operation, weight) -> operations.addAll(Collections.nCopies(weight, operation)));
+        long now = System.nanoTime();
+        while (now < measureEnd) {
+            Operation operation = operations.get(random.nextInt(operations.size()));
+            String unpaidBusinessKey = null;
+            if (operation == Operation.POST_PAYMENT && (unpaidBusinessKey = unpaidBusinessKeys.poll()) == null)
+                operation = Operation.POST_ORDER;
+            boolean success;
+            long start = System.nanoTime();
+            try {
+                success = execute(operation, random, unpaidBusinessKey);
+            } catch (RestClientException e) {
+                success = false;
+            }
+            now = System.nanoTime();
+            if (start >= measureStart && now <= measureEnd) {
+                Result result = results.computeIfAbsent(operation, o -> new Result());
+                if (success)
+                    result.latency.recordValue(now - start);
+                else
+                    result.errors++;
+            }
+        }
+        return results;
+    }
+
+    private boolean execute(Operation operation, Random random, String unpaidBusinessKey) {
+        switch (operation) {
+            case POST_ORDER:
+                String businessKey = nextBusinessKey();
+                restTemplate.postForEntity(baseUrl + "/order", data.order(random, businessKey), Map.class);
+                unpaidBusinessKeys.add(businessKey);
+                return true;
+            case POST_PAYMENT:
+                restTemplate.postForEntity(baseUrl + "/payment/" + unpaidBusinessKey, data.payment(random), Map.class);
+                return true;
+            case GET_UNPAID_ORDERS:
+                restTemplate.getForEntity(baseUrl + "/order?unpaidOnly=true", String.class);
+                return true;
+            case GET_ORDER:
+                restTemplate.getForEntity(baseUrl + "/order/" + orderIds[random.nextInt(orderIds.length)], String.class);
+                return true;
+            default:
+                throw new IllegalArgumentException(operation.getKey());
+        }
+    }
+
+    private String nextBusinessKey() {
+        return "load-" + businessKeySequence.incrementAndGet();
+    }
+
+    private void report(Map<Operation, Result> results, long seedMillis) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("seedMillis", seedMillis);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Map.Entry<Operation, Result> entry : results.entrySet()) {
+            Histogram latency = entry.getValue().latency;
+            Map<String, Object> operation = new LinkedHashMap<>();
+            operation.put("count", latency.getTotalCount());
+            operation.put("errors", entry.getValue().errors);
+            operation.put("throughputPerSecond", (double) latency.getTotalCount() / config.getDurationSeconds());
+            operation.put("p50Millis", millis(latency.getValueAtPercentile(50)));
+            operation.put("p99Millis", millis(latency.getValueAtPercentile(99)));
+            operation.put("p999Millis", millis(latency.getValueAtPercentile(99.9)));
+            operation.put("maxMillis", millis(latency.getMaxValue()));
+            operations.put(entry.getKey().getKey(), operation);
+            System.out.printf("%-16s %10d ops %8.1f ops/s  p50 %8.3f ms  p99 %8.3f ms  p999 %8.3f ms  errors %d%n",
+                    entry.getKey().getKey(), latency.getTotalCount(), operation.get("throughputPerSecond"),
+                    operation.get("p50Millis"), operation.get("p99Millis"), operation.get("p999Millis"), entry.getValue().errors);
+        }
+        report.put("operations", operations);
+        File file = new File(config.getDirectory(), "load-test-report.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Result {
+        private final Histogram latency = new Histogram(3);
+        private long errors;
+
+        private void add(Result other) {
+            latency.add(other.latency);
+            errors += other.errors;
+        }
+    }
+}
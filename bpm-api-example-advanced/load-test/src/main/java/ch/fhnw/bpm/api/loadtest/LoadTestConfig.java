@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.loadtest;
+
+import lombok.Data;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties so they can be passed as {@code -D} options to
+ * {@code mvn -Pload-test verify}.
+ */
+@Data
+class LoadTestConfig {
+    private String jar;
+    private String javaHome;
+    private String directory;
+    private String jvmArgs;
+    private int port;
+    private int customers;
+    private int orders;
+    private double paidRatio;
+    private int clients;
+    private int warmupSeconds;
+    private int durationSeconds;
+    private long seed;
+    private Map<Operation, Integer> mix;
+
+    static LoadTestConfig fromSystemProperties() {
+        LoadTestConfig config = new LoadTestConfig();
+        config.setJar(System.getProperty("loadtest.jar", "target/application.jar"));
+        config.setJavaHome(System.getProperty("loadtest.javaHome", System.getProperty("java.home")));
+        config.setDirectory(System.getProperty("loadtest.directory", "target"));
+        config.setJvmArgs(System.getProperty("loadtest.jvmArgs", "-Xmx1g"));
+        config.setPort(Integer.getInteger("loadtest.port", 18081));
+        config.setCustomers(Integer.getInteger("loadtest.customers", 1000));
+        config.setOrders(Integer.getInteger("loadtest.orders", 10000));
+        config.setPaidRatio(Double.parseDouble(System.getProperty("loadtest.paidRatio", "0.5")));
+        config.setClients(Integer.getInteger("loadtest.clients", 32));
+        config.setWarmupSeconds(Integer.getInteger("loadtest.warmupSeconds", 10));
+        config.setDurationSeconds(Integer.getInteger("loadtest.durationSeconds", 60));
+        config.setSeed(Long.getLong("loadtest.seed", 42L));
+        config.setMix(parseMix(System.getProperty("loadtest.mix", "postOrder=20,postPayment=10,getUnpaidOrders=20,getOrder=50")));
+        return config;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.trim().split("=");
+            if (weight.length != 2)
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            weights.put(Operation.of(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.loadtest;
+
+enum Operation {
+    POST_ORDER("postOrder"),
+    POST_PAYMENT("postPayment"),
+    GET_UNPAID_ORDERS("getUnpaidOrders"),
+    GET_ORDER("getOrder");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    static Operation of(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key))
+                return operation;
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Compares request throughput with the platform Tomcat worker pool and with {@code bpm.virtual-threads.enabled}
+ * when clients upload their order bodies slowly. Each client sends the headers, waits, and then sends the body, so a
+ * request holds its worker thread for the upload time. Results go to {@code slow-client-report.json}.
+ * The virtual thread mode needs {@code loadtest.javaHome} to point at a Java 21 runtime.
+ */
+public class SlowClientBenchmark {
+
+    private static final String ORDER = "{\"pizzaType\":\"Margherita\",\"pizzaSize\":\"L\",\"pizzaPrice\":\"12.50\","
+            + "\"firstName\":\"First\",\"lastName\":\"Last\",\"address\":\"Street 1\",\"email\":\"slow%d@loadtest.example\"}";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        String[] modes = System.getProperty("loadtest.slow.modes", "platform,virtual").split(",");
+        String[] clientCounts = System.getProperty("loadtest.slow.clients", "50,200,800").split(",");
+        long uploadMillis = Long.getLong("loadtest.slow.uploadMillis", 1000L);
+        List<Map<String, Object>> results = new ArrayList<>();
+        RestTemplate restTemplate = new RestTemplate();
+        for (String mode : modes) {
+            String[] arguments = "virtual".equals(mode.trim())
+                    ? new String[]{"--bpm.virtual-threads.enabled=true"}
+                    : new String[0];
+            try (ApplicationProcess application = ApplicationProcess.start(config, restTemplate, arguments)) {
+                for (String clientCount : clientCounts) {
+                    int clients = Integer.parseInt(clientCount.trim());
+                    Map<String, Object> result = run(config, clients, uploadMillis);
+                    result.put("mode", mode.trim());
+                    results.add(result);
+                    System.out.printf("%-8s %5d clients %8.1f req/s  p50 %8.1f ms  p99 %8.1f ms  errors %s%n", mode.trim(), clients,
+                            result.get("throughputPerSecond"), result.get("p50Millis"), result.get("p99Millis"), result.get("errors"));
+                }
+            }
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("uploadMillis", uploadMillis);
+        report.put("durationSeconds", config.getDurationSeconds());
+        report.put("javaHome", config.getJavaHome());
+        report.put("results", results);
+        File file = new File(config.getDirectory(), "slow-client-report.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    private static Map<String, Object> run(LoadTestConfig config, int clients, long uploadMillis) throws InterruptedException, ExecutionException {
+        long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+        long measureEnd = measureStart + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> futures = new ArrayList<>(clients);
+        Histogram latency = new Histogram(3);
+        long errors = 0;
+        try {
+            List<Histogram> histograms = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                Histogram histogram = new Histogram(3);
+                histograms.add(histogram);
+                int client = i;
+                futures.add(executor.submit(() -> runClient(config.getPort(), client, uploadMillis, measureStart, measureEnd, histogram)));
+            }
+            for (int i = 0; i < clients; i++) {
+                errors += futures.get(i).get()[0];
+                latency.add(histograms.get(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("clients", clients);
+        result.put("completed", latency.getTotalCount());
+        result.put("errors", errors);
+        result.put("throughputPerSecond", (double) latency.getTotalCount() / config.getDurationSeconds());
+        result.put("p50Millis", latency.getValueAtPercentile(50) / 1_000_000.0);
+        result.put("p99Millis", latency.getValueAtPercentile(99) / 1_000_000.0);
+        return result;
+    }
+
+    private static long[] runClient(int port, int client, long uploadMillis, long measureStart, long measureEnd, Histogram histogram) throws InterruptedException {
+        byte[] body = String.format(ORDER, client).getBytes(StandardCharsets.UTF_8);
+        byte[] headers = ("POST /api/pizza/v1/order HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n"
+                + "Content-Length: " + body.length + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        long errors = 0;
+        long now = System.nanoTime();
+        while (now < measureEnd) {
+            long start = now;
+            boolean success;
+            try (Socket socket = new Socket("localhost", port)) {
+                OutputStream out = socket.getOutputStream();
+                out.write(headers);
+                out.flush();
+                Thread.sleep(uploadMillis);
+                out.write(body);
+                out.flush();
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                String statusLine = in.readLine();
+                success = statusLine != null && statusLine.contains(" 201 ");
+                String line;
+                do {
+                    line = in.readLine();
+                } while (line != null);
+            } catch (IOException e) {
+                success = false;
+            }
+            now = System.nanoTime();
+            if (start >= measureStart && now <= measureEnd) {
+                if (success)
+                    histogram.recordValue(now - start);
+                else
+                    errors++;
+            }
+        }
+        return new long[]{errors};
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cold start of the packaged application: the time until the health endpoint answers, the time until the
+ * first API request has been served, and the resident set size after that request. Modes are {@code default},
+ * {@code prod} (the prod profile with the component index), {@code prod-exploded} (the same started from the unpacked
+ * jar) and {@code prod-cds} (unpacked, with an AppCDS archive recorded by {@link CdsArchive}). The unpacked modes
+ * need {@code loadtest.javaHome} to point at a Java 13 or newer runtime and are skipped otherwise; from Java 16 on,
+ * {@code loadtest.jvmArgs} also needs {@code --add-opens java.base/java.lang=ALL-UNNAMED}. Results go to
+ * {@code loadtest.startup.report}. With {@code loadtest.startup.maxHealthyMillis} or
+ * {@code loadtest.startup.maxRssKilobytes} set, a run above either limit fails the build after the report is written.
+ */
+public class StartupBenchmark {
+
+    private static final String FIRST_REQUEST = "/api/pizza/v1/order/unpaid/count";
+    private static final List<String> PROD_JVM_ARGS = Collections.singletonList("-Dspring.index.ignore=false");
+    private static final String[] PROD_ARGUMENTS = {"--spring.profiles.active=prod"};
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        String[] modes = System.getProperty("loadtest.startup.modes", "default,prod,prod-exploded,prod-cds").split(",");
+        int runs = Integer.getInteger("loadtest.startup.runs", 3);
+        long maxHealthyMillis = Long.getLong("loadtest.startup.maxHealthyMillis", 0);
+        long maxRssKilobytes = Long.getLong("loadtest.startup.maxRssKilobytes", 0);
+        RestTemplate restTemplate = new RestTemplate();
+        List<Map<String, Object>> results = new ArrayList<>();
+        CdsArchive cds = null;
+        for (String mode : modes) {
+            mode = mode.trim();
+            List<String> launch;
+            String[] arguments = PROD_ARGUMENTS;
+            if ("default".equals(mode)) {
+                launch = Arrays.asList("-jar", new File(config.getJar()).getAbsolutePath());
+                arguments = new String[0];
+            } else if ("prod".equals(mode)) {
+                launch = new ArrayList<>(PROD_JVM_ARGS);
+                launch.addAll(Arrays.asList("-jar", new File(config.getJar()).getAbsolutePath()));
+            } else if ("prod-exploded".equals(mode) || "prod-cds".equals(mode)) {
+                if (!CdsArchive.isSupported(config)) {
+                    System.out.printf("%-14s skipped, needs loadtest.javaHome with Java 13 or newer%n", mode);
+                    continue;
+                }
+                if (cds == null)
+                    cds = CdsArchive.create(config, restTemplate, PROD_JVM_ARGS, PROD_ARGUMENTS);
+                launch = new ArrayList<>(PROD_JVM_ARGS);
+                launch.addAll("prod-cds".equals(mode) ? cds.launchWithArchive() : cds.launch());
+            } else {
+                throw new IllegalArgumentException("Unknown loadtest.startup.modes entry: " + mode);
+            }
+            for (int run = 1; run <= runs; run++) {
+                Map<String, Object> result = run(config, restTemplate, launch, arguments);
+                result.put("mode", mode);
+                result.put("run", run);
+                results.add(result);
+                System.out.printf("%-14s run %d  healthy %6d ms  first request %6d ms  RSS %7d kB%n", mode, run,
+                        result.get("healthyMillis"), result.get("firstRequestMillis"), result.get("rssKilobytes"));
+            }
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("javaHome", config.getJavaHome());
+        report.put("jvmArgs", config.getJvmArgs());
+        report.put("results", results);
+        File file = new File(config.getDirectory(), System.getProperty("loadtest.startup.report", "startup-report.json"));
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file.getAbsolutePath());
+        List<String> exceeded = new ArrayList<>();
+        for (Map<String, Object> result : results) {
+            long healthyMillis = (Long) result.get("healthyMillis");
+            long rssKilobytes = (Long) result.get("rssKilobytes");
+            if (maxHealthyMillis > 0 && healthyMillis > maxHealthyMillis)
+                exceeded.add(String.format("%s run %d healthy after %d ms, limit %d ms", result.get("mode"), result.get("run"), healthyMillis, maxHealthyMillis));
+            if (maxRssKilobytes > 0 && rssKilobytes > maxRssKilobytes)
+                exceeded.add(String.format("%s run %d RSS %d kB, limit %d kB", result.get("mode"), result.get("run"), rssKilobytes, maxRssKilobytes));
+        }
+        if (!exceeded.isEmpty())
+            throw new IllegalStateException("Startup limits exceeded: " + String.join("; ", exceeded));
+    }
+
+    private static Map<String, Object> run(LoadTestConfig config, RestTemplate restTemplate, List<String> launch, String[] arguments) throws Exception {
+        long start = System.nanoTime();
+        try (ApplicationProcess application = ApplicationProcess.start(config, restTemplate, launch, arguments)) {
+            long healthy = System.nanoTime();
+            restTemplate.getForObject(application.getBaseUrl() + FIRST_REQUEST, String.class);
+            long firstRequest = System.nanoTime();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("healthyMillis", TimeUnit.NANOSECONDS.toMillis(healthy - start));
+            result.put("firstRequestMillis", TimeUnit.NANOSECONDS.toMillis(firstRequest - start));
+            result.put("rssKilobytes", application.getResidentSetKilobytes());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates order and payment request bodies from a fixed attribute vocabulary and a bounded customer population.
+ */
+class SyntheticData {
+
+    private static final String[] TYPES = {"Margherita", "Napoli", "Funghi", "Hawaii", "Diavola", "Quattro Formaggi"};
+    private static final String[] SIZES = {"S", "M", "L", "XL"};
+    private static final String[] SAUCES = {"Tomato", "Cream", "BBQ"};
+    private static final String[] CRUSTS = {"Thin", "Thick", "Stuffed"};
+    private static final String[] TOPPINGS = {"Basil", "Olives", "Onions", "Peppers", "Ham", "Salami"};
+    private static final String[] PRICES = {"9.50", "12.50", "15.00", "18.50"};
+
+    private final int customers;
+
+    SyntheticData(int customers) {
+        this.customers = customers;
+    }
+
+    Map<String, Object> order(Random random, String businessKey) {
+        int customer = random.nextInt(customers);
+        Map<String, Object> order = new HashMap<>();
+        order.put("pizzaType", pick(random, TYPES));
+        order.put("pizzaSize", pick(random, SIZES));
+        order.put("pizzaSauce", pick(random, SAUCES));
+        order.put("pizzaCrust", pick(random, CRUSTS));
+        order.put("pizzaTopping", pick(random, TOPPINGS));
+        order.put("pizzaPrice", pick(random, PRICES));
+        order.put("businessKey", businessKey);
+        order.put("firstName", "First" + customer);
+        order.put("lastName", "Last" + customer);
+        order.put("address", "Street " + customer);
+        order.put("email", "customer" + customer + "@loadtest.example");
+        return order;
+    }
+
+    Map<String, Object> payment(Random random) {
+        Map<String, Object> payment = new HashMap<>();
+        payment.put("payment", pick(random, PRICES));
+        payment.put("receipt", random.nextBoolean());
+        return payment;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
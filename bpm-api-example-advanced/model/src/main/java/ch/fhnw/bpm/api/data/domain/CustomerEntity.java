@@ -5,22 +5,33 @@
 
 package ch.fhnw.bpm.api.data.domain;
 
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.Id;
-import javax.persistence.OneToMany;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import javax.persistence.*;
+import java.util.Date;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = @Index(name = "uk_customer_email", columnList = "email", unique = true))
 public class CustomerEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "customer_seq")
+    @GenericGenerator(name = "customer_seq", strategy = "ch.fhnw.bpm.api.data.domain.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "customer_seq"))
     private long id;
     private String firstName;
     private String lastName;
     private String address;
     private String email;
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastModified;
     @OneToMany(mappedBy = "customer")
     private List<OrderEntity> orders;
 
@@ -64,6 +75,10 @@ public class CustomerEntity {
         this.email = email;
     }
 
+    public Date getLastModified() {
+        return lastModified;
+    }
+
     public List<OrderEntity> getOrders() {
         return orders;
     }
@@ -71,4 +86,10 @@ public class CustomerEntity {
     public void setOrders(List<OrderEntity> orders) {
         this.orders = orders;
     }
+
+    @PrePersist
+    @PreUpdate
+    public void updateLastModified() {
+        lastModified = new Date();
+    }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.data.domain;
+
+import javax.persistence.*;
+import java.util.Date;
+
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_key_creation_timestamp", columnList = "creationTimestamp"))
+public class IdempotencyKeyEntity {
+
+    @Id
+    @Column(length = 512)
+    private String idempotencyKey;
+    @Column(length = 44, nullable = false)
+    private String fingerprint;
+    private long resultId;
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date creationTimestamp = new Date();
+
+    protected IdempotencyKeyEntity() {
+    }
+
+    public IdempotencyKeyEntity(String idempotencyKey, String fingerprint, long resultId) {
+        this.idempotencyKey = idempotencyKey;
+        this.fingerprint = fingerprint;
+        this.resultId = resultId;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public long getResultId() {
+        return resultId;
+    }
+
+    public Date getCreationTimestamp() {
+        return creationTimestamp;
+    }
+}
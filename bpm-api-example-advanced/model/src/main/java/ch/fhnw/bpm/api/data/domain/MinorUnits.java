@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.data.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.regex.Pattern;
+
+/**
+ * Converts the free-text amounts accepted by the API ("12.50", "12,50", "CHF 12.-", "1,234.50", "1'234.50") into minor
+ * units (cents), so they can be summed in the database. The last separator is the decimal mark unless it repeats or
+ * is followed by exactly three digits, in which case all separators group thousands. Amounts that cannot be read
+ * yield null, are left out of any aggregate and are counted as unparsed.
+ */
+final class MinorUnits {
+
+    // "12.-" and "12,--" are whole amounts
+    private static final Pattern WHOLE_SUFFIX = Pattern.compile("[.,]-+$");
+    private static final Pattern INTEGRAL = Pattern.compile("-?(\\d*|\\d{1,3}([.,]\\d{3})+)");
+
+    private MinorUnits() {
+    }
+
+    static Long parse(String amount) {
+        if (amount == null)
+            return null;
+        String digits = WHOLE_SUFFIX.matcher(amount.trim()).replaceFirst("").replaceAll("[^0-9.,-]", "");
+        if (digits.isEmpty())
+            return null;
+        int decimalMark = Math.max(digits.lastIndexOf('.'), digits.lastIndexOf(','));
+        if (decimalMark >= 0) {
+            char mark = digits.charAt(decimalMark);
+            char other = mark == '.' ? ',' : '.';
+            if (digits.indexOf(mark) != decimalMark || digits.length() - decimalMark == 4 && digits.indexOf(other) < 0)
+                decimalMark = -1;
+        }
+        String integral = decimalMark < 0 ? digits : digits.substring(0, decimalMark);
+        if (!INTEGRAL.matcher(integral).matches())
+            return null;
+        digits = integral.replaceAll("[.,]", "") + (decimalMark < 0 ? "" : "." + digits.substring(decimalMark + 1));
+        try {
+            return new BigDecimal(digits).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+}
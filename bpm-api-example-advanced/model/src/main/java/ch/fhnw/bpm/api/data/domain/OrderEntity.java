@@ -5,28 +5,46 @@
 
 package ch.fhnw.bpm.api.data.domain;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
 import javax.persistence.*;
 import java.util.Date;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "uk_order_business_key", columnList = "businessKey", unique = true),
+        @Index(name = "idx_order_customer_status", columnList = "customer_id, status"),
+        @Index(name = "idx_order_status", columnList = "status, id"),
+        @Index(name = "uk_order_payment", columnList = "payment_id", unique = true),
+        @Index(name = "idx_order_creation_timestamp", columnList = "creationTimestamp")})
 public class OrderEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "order_seq")
+    @GenericGenerator(name = "order_seq", strategy = "ch.fhnw.bpm.api.data.domain.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "order_seq"))
     private long id;
-    private String pizzaType;
-    private String pizzaSize;
-    private String pizzaSauce;
-    private String pizzaCrust;
-    private String pizzaTopping;
+    private Integer pizzaTypeCode;
+    private Integer pizzaSizeCode;
+    private Integer pizzaSauceCode;
+    private Integer pizzaCrustCode;
+    private Integer pizzaToppingCode;
     private String pizzaPrice;
+    private Long pizzaPriceMinor;
     private String businessKey;
     @Temporal(TemporalType.TIMESTAMP)
     private Date creationTimestamp = new Date();
-    @ManyToOne
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastModified;
+    @ManyToOne(fetch = FetchType.LAZY)
     private CustomerEntity customer;
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     private PaymentEntity payment;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private OrderStatus status = OrderStatus.OPEN;
 
     public long getId() {
         return id;
@@ -36,44 +54,44 @@ public class OrderEntity {
         this.id = id;
     }
 
-    public String getPizzaType() {
-        return pizzaType;
+    public Integer getPizzaTypeCode() {
+        return pizzaTypeCode;
     }
 
-    public void setPizzaType(String pizzaType) {
-        this.pizzaType = pizzaType;
+    public void setPizzaTypeCode(Integer pizzaTypeCode) {
+        this.pizzaTypeCode = pizzaTypeCode;
     }
 
-    public String getPizzaSize() {
-        return pizzaSize;
+    public Integer getPizzaSizeCode() {
+        return pizzaSizeCode;
     }
 
-    public void setPizzaSize(String pizzaSize) {
-        this.pizzaSize = pizzaSize;
+    public void setPizzaSizeCode(Integer pizzaSizeCode) {
+        this.pizzaSizeCode = pizzaSizeCode;
     }
 
-    public String getPizzaSauce() {
-        return pizzaSauce;
+    public Integer getPizzaSauceCode() {
+        return pizzaSauceCode;
     }
 
-    public void setPizzaSauce(String pizzaSauce) {
-        this.pizzaSauce = pizzaSauce;
+    public void setPizzaSauceCode(Integer pizzaSauceCode) {
+        this.pizzaSauceCode = pizzaSauceCode;
     }
 
-    public String getPizzaCrust() {
-        return pizzaCrust;
+    public Integer getPizzaCrustCode() {
+        return pizzaCrustCode;
     }
 
-    public void setPizzaCrust(String pizzaCrust) {
-        this.pizzaCrust = pizzaCrust;
+    public void setPizzaCrustCode(Integer pizzaCrustCode) {
+        this.pizzaCrustCode = pizzaCrustCode;
     }
 
-    public String getPizzaTopping() {
-        return pizzaTopping;
+    public Integer getPizzaToppingCode() {
+        return pizzaToppingCode;
     }
 
-    public void setPizzaTopping(String pizzaTopping) {
-        this.pizzaTopping = pizzaTopping;
+    public void setPizzaToppingCode(Integer pizzaToppingCode) {
+        this.pizzaToppingCode = pizzaToppingCode;
     }
 
     public String getPizzaPrice() {
@@ -82,6 +100,11 @@ public class OrderEntity {
 
     public void setPizzaPrice(String pizzaPrice) {
         this.pizzaPrice = pizzaPrice;
+        this.pizzaPriceMinor = MinorUnits.parse(pizzaPrice);
+    }
+
+    public Long getPizzaPriceMinor() {
+        return pizzaPriceMinor;
     }
 
     public String getBusinessKey() {
@@ -96,6 +119,10 @@ public class OrderEntity {
         return creationTimestamp;
     }
 
+    public Date getLastModified() {
+        return lastModified;
+    }
+
     public CustomerEntity getCustomer() {
         return customer;
     }
@@ -110,5 +137,22 @@ public class OrderEntity {
 
     public void setPayment(PaymentEntity payment) {
         this.payment = payment;
+        updateStatus();
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateDerivedColumns() {
+        lastModified = new Date();
+        updateStatus();
+        pizzaPriceMinor = MinorUnits.parse(pizzaPrice);
+    }
+
+    private void updateStatus() {
+        status = payment == null ? OrderStatus.OPEN : OrderStatus.PAID;
     }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.data.domain;
+
+import java.util.Date;
+
+/**
+ * Flat, unmanaged read model of an order joined with its customer and payment, filled by constructor expression
+ * queries so list reads bypass entity instantiation and dirty-checking snapshots.
+ */
+public class OrderView {
+
+    private final long id;
+    private final Integer pizzaTypeCode;
+    private final Integer pizzaSizeCode;
+    private final Integer pizzaSauceCode;
+    private final Integer pizzaCrustCode;
+    private final Integer pizzaToppingCode;
+    private final String pizzaPrice;
+    private final String businessKey;
+    private final Date creationTimestamp;
+    private final OrderStatus status;
+    private final Long customerId;
+    private final String customerFirstName;
+    private final String customerLastName;
+    private final String customerAddress;
+    private final String customerEmail;
+    private final Long paymentId;
+    private final String payment;
+    private final Boolean paymentReceipt;
+    private final Date paymentCreationTimestamp;
+    private final Date lastModified;
+    private final Date customerLastModified;
+    private final Date paymentLastModified;
+
+    public OrderView(long id, Integer pizzaTypeCode, Integer pizzaSizeCode, Integer pizzaSauceCode, Integer pizzaCrustCode,
+                     Integer pizzaToppingCode, String pizzaPrice, String businessKey, Date creationTimestamp, OrderStatus status,
+                     Long customerId, String customerFirstName, String customerLastName, String customerAddress, String customerEmail,
+                     Long paymentId, String payment, Boolean paymentReceipt, Date paymentCreationTimestamp,
+                     Date lastModified, Date customerLastModified, Date paymentLastModified) {
+        this.id = id;
+        this.pizzaTypeCode = pizzaTypeCode;
+        this.pizzaSizeCode = pizzaSizeCode;
+        this.pizzaSauceCode = pizzaSauceCode;
+        this.pizzaCrustCode = pizzaCrustCode;
+        this.pizzaToppingCode = pizzaToppingCode;
+        this.pizzaPrice = pizzaPrice;
+        this.businessKey = businessKey;
+        this.creationTimestamp = creationTimestamp;
+        this.status = status;
+        this.customerId = customerId;
+        this.customerFirstName = customerFirstName;
+        this.customerLastName = customerLastName;
+        this.customerAddress = customerAddress;
+        this.customerEmail = customerEmail;
+        this.paymentId = paymentId;
+        this.payment = payment;
+        this.paymentReceipt = paymentReceipt;
+        this.paymentCreationTimestamp = paymentCreationTimestamp;
+        this.lastModified = lastModified;
+        this.customerLastModified = customerLastModified;
+        this.paymentLastModified = paymentLastModified;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Integer getPizzaTypeCode() {
+        return pizzaTypeCode;
+    }
+
+    public Integer getPizzaSizeCode() {
+        return pizzaSizeCode;
+    }
+
+    public Integer getPizzaSauceCode() {
+        return pizzaSauceCode;
+    }
+
+    public Integer getPizzaCrustCode() {
+        return pizzaCrustCode;
+    }
+
+    public Integer getPizzaToppingCode() {
+        return pizzaToppingCode;
+    }
+
+    public String getPizzaPrice() {
+        return pizzaPrice;
+    }
+
+    public String getBusinessKey() {
+        return businessKey;
+    }
+
+    public Date getCreationTimestamp() {
+        return creationTimestamp;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public String getCustomerFirstName() {
+        return customerFirstName;
+    }
+
+    public String getCustomerLastName() {
+        return customerLastName;
+    }
+
+    public String getCustomerAddress() {
+        return customerAddress;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public String getPayment() {
+        return payment;
+    }
+
+    public Boolean getPaymentReceipt() {
+        return paymentReceipt;
+    }
+
+    public Date getPaymentCreationTimestamp() {
+        return paymentCreationTimestamp;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public Date getCustomerLastModified() {
+        return customerLastModified;
+    }
+
+    public Date getPaymentLastModified() {
+        return paymentLastModified;
+    }
+}
@@ -5,20 +5,36 @@
 
 package ch.fhnw.bpm.api.data.domain;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.LazyToOne;
+import org.hibernate.annotations.LazyToOneOption;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
 import javax.persistence.*;
 import java.util.Date;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class PaymentEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "payment_seq")
+    @GenericGenerator(name = "payment_seq", strategy = "ch.fhnw.bpm.api.data.domain.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "payment_seq"))
     private long id;
     private String payment;
+    private Long paymentMinor;
     private boolean receipt;
     @Temporal(TemporalType.TIMESTAMP)
     private Date creationTimestamp = new Date();
-    @OneToOne(mappedBy = "payment")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastModified;
+    @OneToOne(mappedBy = "payment", fetch = FetchType.LAZY)
+    @LazyToOne(LazyToOneOption.NO_PROXY)
     private OrderEntity order;
 
     public long getId() {
@@ -35,6 +51,11 @@ public class PaymentEntity {
 
     public void setPayment(String payment) {
         this.payment = payment;
+        this.paymentMinor = MinorUnits.parse(payment);
+    }
+
+    public Long getPaymentMinor() {
+        return paymentMinor;
     }
 
     public boolean isReceipt() {
@@ -49,6 +70,17 @@ public class PaymentEntity {
         return creationTimestamp;
     }
 
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateDerivedColumns() {
+        lastModified = new Date();
+        paymentMinor = MinorUnits.parse(payment);
+    }
+
     public OrderEntity getOrder() {
         return order;
     }
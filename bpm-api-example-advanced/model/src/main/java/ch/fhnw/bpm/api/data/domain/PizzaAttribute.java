@@ -0,0 +1,10 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.data.domain;
+
+public enum PizzaAttribute {
+    TYPE, SIZE, SAUCE, CRUST, TOPPING
+}
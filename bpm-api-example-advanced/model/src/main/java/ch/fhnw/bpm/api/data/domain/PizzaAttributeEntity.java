@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.data.domain;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import javax.persistence.*;
+
+/**
+ * Dictionary entry for one distinct value of a pizza attribute. Orders reference entries by their integer code
+ * instead of repeating the text on every row; entries are never changed once written.
+ */
+@Entity
+@Immutable
+@Table(indexes = @Index(name = "uk_pizza_attribute_name", columnList = "attribute, name", unique = true))
+public class PizzaAttributeEntity {
+
+    @Id
+    @GeneratedValue(generator = "pizza_attribute_seq")
+    @GenericGenerator(name = "pizza_attribute_seq", strategy = "ch.fhnw.bpm.api.data.domain.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "pizza_attribute_seq"))
+    private int id;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private PizzaAttribute attribute;
+    @Column(nullable = false)
+    private String name;
+
+    protected PizzaAttributeEntity() {
+    }
+
+    public PizzaAttributeEntity(PizzaAttribute attribute, String name) {
+        this.attribute = attribute;
+        this.name = name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public PizzaAttribute getAttribute() {
+        return attribute;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
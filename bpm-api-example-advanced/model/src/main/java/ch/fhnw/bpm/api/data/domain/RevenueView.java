@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.data.domain;
+
+public class RevenueView {
+
+    private final String key;
+    private final long orders;
+    private final long revenue;
+    private final long unparsed;
+
+    public RevenueView(String key, long orders, Long revenue, long unparsed) {
+        this.key = key;
+        this.orders = orders;
+        this.revenue = revenue == null ? 0 : revenue;
+        this.unparsed = unparsed;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public long getRevenue() {
+        return revenue;
+    }
+
+    public long getUnparsed() {
+        return unparsed;
+    }
+}
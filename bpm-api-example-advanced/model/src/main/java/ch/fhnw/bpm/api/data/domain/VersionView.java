@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.data.domain;
+
+import java.util.Date;
+
+/**
+ * Row count and latest modification times of the entities behind a resource, from which its ETag is derived.
+ */
+public class VersionView {
+
+    private final long count;
+    private final Date[] lastModified;
+
+    public VersionView(Long count, Date first, Date second) {
+        this(count, new Date[]{first, second});
+    }
+
+    public VersionView(Long count, Date first, Date second, Date third) {
+        this(count, new Date[]{first, second, third});
+    }
+
+    private VersionView(Long count, Date[] lastModified) {
+        this.count = count == null ? 0 : count;
+        this.lastModified = lastModified;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public String getTag() {
+        StringBuilder tag = new StringBuilder(Long.toString(count, 36));
+        for (Date date : lastModified) {
+            tag.append('-').append(Long.toString(date == null ? 0 : date.getTime(), 36));
+        }
+        return tag.toString();
+    }
+}
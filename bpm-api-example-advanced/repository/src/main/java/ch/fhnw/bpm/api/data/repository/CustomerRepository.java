@@ -7,12 +7,20 @@ package ch.fhnw.bpm.api.data.repository;
 
 import ch.fhnw.bpm.api.data.domain.CustomerEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<CustomerEntity, Long> {
-    List<CustomerEntity> findByEmail(@Param("email") String email);
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Optional<CustomerEntity> findByEmail(@Param("email") String email);
+    List<CustomerEntity> findByEmailIn(@Param("emails") Collection<String> emails);
 }
@@ -6,16 +6,90 @@
 package ch.fhnw.bpm.api.data.repository;
 
 import ch.fhnw.bpm.api.data.domain.OrderEntity;
+import ch.fhnw.bpm.api.data.domain.OrderStatus;
+import ch.fhnw.bpm.api.data.domain.OrderView;
+import ch.fhnw.bpm.api.data.domain.RevenueView;
+import ch.fhnw.bpm.api.data.domain.VersionView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
-    List<OrderEntity> findByBusinessKey(@Param("businessKey") String businessKey);
-    List<OrderEntity> findByCustomerEmail(@Param("email") String email);
-    List<OrderEntity> findByPaymentIsNull();
-    List<OrderEntity> findByCustomerEmailAndPaymentIsNull(@Param("email") String email);
+    @EntityGraph(attributePaths = {"customer", "payment"})
+    @Override
+    List<OrderEntity> findAll();
+    @EntityGraph(attributePaths = {"customer", "payment"})
+    @Override
+    Optional<OrderEntity> findById(Long id);
+    Optional<OrderEntity> findByBusinessKey(@Param("businessKey") String businessKey);
+    List<OrderEntity> findByBusinessKeyIn(@Param("businessKeys") Collection<String> businessKeys);
+    long countByStatus(@Param("status") OrderStatus status);
+    long countByCustomerEmailAndStatus(@Param("email") String email, @Param("status") OrderStatus status);
+    String ORDER_VIEW = "select new ch.fhnw.bpm.api.data.domain.OrderView(o.id, o.pizzaTypeCode, o.pizzaSizeCode, o.pizzaSauceCode, "
+            + "o.pizzaCrustCode, o.pizzaToppingCode, o.pizzaPrice, o.businessKey, o.creationTimestamp, o.status, c.id, c.firstName, c.lastName, c.address, c.email, "
+            + "p.id, p.payment, p.receipt, p.creationTimestamp, o.lastModified, c.lastModified, p.lastModified) from OrderEntity o left join o.customer c left join o.payment p ";
+
+    @Query(ORDER_VIEW + "order by o.id")
+    List<OrderView> findAllViews();
+    @Query(ORDER_VIEW + "where c.email = :email order by o.id")
+    List<OrderView> findViewsByCustomerEmail(@Param("email") String email);
+    @Query(ORDER_VIEW + "where o.status = ch.fhnw.bpm.api.data.domain.OrderStatus.OPEN order by o.id")
+    List<OrderView> findUnpaidViews();
+    @Query(ORDER_VIEW + "where c.email = :email and o.status = ch.fhnw.bpm.api.data.domain.OrderStatus.OPEN order by o.id")
+    List<OrderView> findUnpaidViewsByCustomerEmail(@Param("email") String email);
+    @Query(ORDER_VIEW + "where o.id > :id order by o.id")
+    List<OrderView> findViewPage(@Param("id") long id, Pageable pageable);
+    @Query(ORDER_VIEW + "where o.id > :id and o.status = ch.fhnw.bpm.api.data.domain.OrderStatus.OPEN order by o.id")
+    List<OrderView> findUnpaidViewPage(@Param("id") long id, Pageable pageable);
+    @Query(ORDER_VIEW + "where c.email = :email and o.id > :id order by o.id")
+    List<OrderView> findViewPageByCustomerEmail(@Param("email") String email, @Param("id") long id, Pageable pageable);
+    @Query(ORDER_VIEW + "where c.email = :email and o.id > :id and o.status = ch.fhnw.bpm.api.data.domain.OrderStatus.OPEN order by o.id")
+    List<OrderView> findUnpaidViewPageByCustomerEmail(@Param("email") String email, @Param("id") long id, Pageable pageable);
+    @Query(ORDER_VIEW + "order by o.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<OrderView> streamAllViews();
+    @Query(ORDER_VIEW + "where c.email = :email order by o.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<OrderView> streamViewsByCustomerEmail(@Param("email") String email);
+    @Query(ORDER_VIEW + "where o.status = ch.fhnw.bpm.api.data.domain.OrderStatus.OPEN order by o.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<OrderView> streamUnpaidViews();
+    @Query(ORDER_VIEW + "where c.email = :email and o.status = ch.fhnw.bpm.api.data.domain.OrderStatus.OPEN order by o.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<OrderView> streamUnpaidViewsByCustomerEmail(@Param("email") String email);
+    String VERSION = "select new ch.fhnw.bpm.api.data.domain.VersionView(count(o), max(o.lastModified), max(c.lastModified), max(p.lastModified)) "
+            + "from OrderEntity o left join o.customer c left join o.payment p ";
+
+    @Query(VERSION + "where o.id = :id")
+    VersionView findVersionById(@Param("id") long id);
+    @Query("select o from OrderEntity o where o.pizzaPriceMinor is null and o.pizzaPrice is not null and o.id > :id order by o.id")
+    List<OrderEntity> findPriceBackfillBatch(@Param("id") long id, Pageable pageable);
+    String REVENUE_FILTER = "where o.status in :statuses and o.creationTimestamp >= :from and o.creationTimestamp < :to ";
+
+    @Query("select new ch.fhnw.bpm.api.data.domain.RevenueView(a.name, count(o), sum(o.pizzaPriceMinor), "
+            + "count(o.pizzaPrice) - count(o.pizzaPriceMinor)) from OrderEntity o "
+            + "left join PizzaAttributeEntity a on a.id = o.pizzaTypeCode " + REVENUE_FILTER + "group by a.name order by a.name")
+    List<RevenueView> revenueByPizzaType(@Param("statuses") Collection<OrderStatus> statuses, @Param("from") Date from, @Param("to") Date to);
+    @Query("select new ch.fhnw.bpm.api.data.domain.RevenueView(a.name, count(o), sum(o.pizzaPriceMinor), "
+            + "count(o.pizzaPrice) - count(o.pizzaPriceMinor)) from OrderEntity o "
+            + "left join PizzaAttributeEntity a on a.id = o.pizzaSizeCode " + REVENUE_FILTER + "group by a.name order by a.name")
+    List<RevenueView> revenueByPizzaSize(@Param("statuses") Collection<OrderStatus> statuses, @Param("from") Date from, @Param("to") Date to);
+    @Query("select new ch.fhnw.bpm.api.data.domain.RevenueView(str(cast(o.creationTimestamp as date)), count(o), sum(o.pizzaPriceMinor), "
+            + "count(o.pizzaPrice) - count(o.pizzaPriceMinor)) from OrderEntity o "
+            + REVENUE_FILTER + "group by str(cast(o.creationTimestamp as date)) order by str(cast(o.creationTimestamp as date))")
+    List<RevenueView> revenueByDay(@Param("statuses") Collection<OrderStatus> statuses, @Param("from") Date from, @Param("to") Date to);
 }
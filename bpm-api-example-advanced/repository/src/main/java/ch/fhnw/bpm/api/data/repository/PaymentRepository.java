@@ -6,9 +6,20 @@
 package ch.fhnw.bpm.api.data.repository;
 
 import ch.fhnw.bpm.api.data.domain.PaymentEntity;
+import ch.fhnw.bpm.api.data.domain.VersionView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
+    @Query("select new ch.fhnw.bpm.api.data.domain.VersionView(count(p), max(p.lastModified), max(o.lastModified)) "
+            + "from PaymentEntity p left join p.order o where p.id = :id")
+    VersionView findVersionById(@Param("id") long id);
+    @Query("select p from PaymentEntity p where p.paymentMinor is null and p.payment is not null and p.id > :id order by p.id")
+    List<PaymentEntity> findPaymentBackfillBatch(@Param("id") long id, Pageable pageable);
 }
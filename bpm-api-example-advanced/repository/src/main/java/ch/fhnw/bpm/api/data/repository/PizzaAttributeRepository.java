@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.data.repository;
+
+import ch.fhnw.bpm.api.data.domain.PizzaAttribute;
+import ch.fhnw.bpm.api.data.domain.PizzaAttributeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PizzaAttributeRepository extends JpaRepository<PizzaAttributeEntity, Integer> {
+    Optional<PizzaAttributeEntity> findByAttributeAndName(@Param("attribute") PizzaAttribute attribute, @Param("name") String name);
+}
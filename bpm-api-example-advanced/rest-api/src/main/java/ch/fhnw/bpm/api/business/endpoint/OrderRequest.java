@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.endpoint;
+
+import lombok.Data;
+
+@Data
+class OrderRequest {
+    private String pizzaType;
+    private String pizzaSize;
+    private String pizzaSauce;
+    private String pizzaCrust;
+    private String pizzaTopping;
+    private String pizzaPrice;
+    private String businessKey;
+    private String firstName;
+    private String lastName;
+    private String address;
+    private String email;
+}
@@ -0,0 +1,14 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.endpoint;
+
+import lombok.Data;
+
+@Data
+class PaymentRequest {
+    private String payment;
+    private boolean receipt;
+}
@@ -5,20 +5,48 @@
 
 package ch.fhnw.bpm.api.business.endpoint;
 
-import ch.fhnw.bpm.api.business.dto.CustomerDTO;
 import ch.fhnw.bpm.api.business.dto.OrderDTO;
+import ch.fhnw.bpm.api.business.dto.OrderPageDTO;
 import ch.fhnw.bpm.api.business.dto.PaymentDTO;
+import ch.fhnw.bpm.api.business.dto.RevenueDTO;
+import ch.fhnw.bpm.api.business.dto.SettlementResultDTO;
+import ch.fhnw.bpm.api.business.service.IdempotencyKeyConflictException;
+import ch.fhnw.bpm.api.business.service.IdempotencyKeyInProgressException;
+import ch.fhnw.bpm.api.business.service.IdempotencyService;
+import ch.fhnw.bpm.api.business.service.OrderEventService;
 import ch.fhnw.bpm.api.business.service.PizzaService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.Data;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(path = "/api/pizza/v1")
@@ -26,37 +54,113 @@ public class PizzaEndpoint {
     @Autowired
     private PizzaService pizzaService;
 
-    private static final ModelMapper modelMapper = new ModelMapper();
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RequestMapper requestMapper;
+
+    @Autowired
+    private OrderEventService orderEventService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ContentNegotiationManager contentNegotiationManager;
+
+    @Value("${bpm.order-events.timeout-millis:300000}")
+    private long orderEventsTimeout;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
 
     @PostMapping(path = "/order", consumes = "application/json", produces = "application/json")
-    public ResponseEntity postOrder(@RequestBody OrderRequest order) {
+    public ResponseEntity postOrder(@RequestBody OrderRequest order, @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         HttpHeaders headers = new HttpHeaders();
-        OrderDTO orderDTO = pizzaService.createOrder(order.getOrderDTO());
-        headers.setLocation(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(orderDTO.getId()).toUri());
-        return new ResponseEntity<>(new PizzaResponse(orderDTO.getId()), headers, HttpStatus.CREATED);
+        OrderDTO orderDTO = requestMapper.requestToDto(order);
+        long id = idempotent(idempotencyKey == null ? null : "order:" + idempotencyKey, fingerprint(orderDTO),
+                () -> pizzaService.createOrder(orderDTO).getId());
+        headers.setLocation(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(id).toUri());
+        return new ResponseEntity<>(new PizzaResponse(id), headers, HttpStatus.CREATED);
     }
 
-    @GetMapping(path = "/order", produces = "application/json")
-    public List<OrderDTO> getOrders(@RequestParam(defaultValue = "false") boolean unpaidOnly, @RequestParam(required = false) String customerEmail) {
-        if(customerEmail != null) {
-            if (unpaidOnly)
-                return pizzaService.findAllUnpaidOrdersCustomer(customerEmail);
-            return pizzaService.findAllOrdersOfCustomer(customerEmail);
+    @PostMapping(path = "/order/batch", consumes = "application/json", produces = "application/json")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<PizzaResponse> postOrders(@RequestBody List<OrderRequest> orders) {
+        List<OrderDTO> orderDTOs = orders.stream().map(requestMapper::requestToDto).collect(Collectors.toList());
+        return pizzaService.createOrders(orderDTOs).stream().map(PizzaResponse::new).collect(Collectors.toList());
+    }
+
+    @GetMapping(path = "/order", produces = {"application/json", "application/cbor", "application/x-jackson-smile"})
+    public ResponseEntity<List<OrderDTO>> getOrders(@RequestParam(defaultValue = "false") boolean unpaidOnly, @RequestParam(required = false) String customerEmail,
+                                                    @RequestParam(defaultValue = "0") long after, @RequestParam(defaultValue = "100") int size,
+                                                    ServletWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String representation = representationSuffix(request);
+        OrderPageDTO page = pizzaService.findOrderPage(customerEmail, unpaidOnly, after, size,
+                version -> request.checkNotModified(version + representation));
+        if(page.getOrders() == null)
+            return null;
+        HttpHeaders headers = new HttpHeaders();
+        if(page.getNext() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("after", page.getNext()).replaceQueryParam("size", size).toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
         }
-        if (unpaidOnly)
-            return pizzaService.findAllUnpaidOrders();
-        return pizzaService.findAllOrders();
+        return new ResponseEntity<>(page.getOrders(), headers, HttpStatus.OK);
     }
 
-    @GetMapping(path = "/order/{id}", produces = "application/json")
-    public OrderDTO getOrder(@PathVariable(value = "id") long id) {
+    @GetMapping(path = "/order/unpaid/count", produces = "application/json")
+    public CountResponse getUnpaidOrderCount(@RequestParam(required = false) String customerEmail) {
+        return new CountResponse(pizzaService.countUnpaidOrders(customerEmail));
+    }
+
+    @GetMapping(path = "/order/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "false") boolean unpaidOnly, @RequestParam(required = false) String customerEmail) {
+        ObjectWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        StreamingResponseBody body = outputStream -> pizzaService.exportOrders(customerEmail, unpaidOnly, order -> {
+            try {
+                writer.writeValue(outputStream, order);
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    @GetMapping(path = "/order/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getOrderEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                     @RequestParam(required = false) Long after) {
+        SseEmitter emitter = new SseEmitter(orderEventsTimeout);
+        Runnable unsubscribe = orderEventService.subscribe(lastEventId != null ? lastEventId : after, event -> {
+            try {
+                emitter.send(SseEmitter.event().id(String.valueOf(event.getId())).name(event.getType()).data(event, MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+                throw new UncheckedIOException(e);
+            }
+        }, emitter::complete);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        return emitter;
+    }
+
+    @GetMapping(path = "/order/{id}", produces = {"application/json", "application/cbor", "application/x-jackson-smile"})
+    public OrderDTO getOrder(@PathVariable(value = "id") long id, ServletWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        if(notModified(pizzaService.readOrderVersion(id), request))
+            return null;
         return pizzaService.readOrder(id);
     }
 
     @PutMapping (path = "/order/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void putOrder(@PathVariable(value = "id") long id, @RequestBody OrderRequest order) {
-        OrderDTO orderDTO = order.getOrderDTO();
+        OrderDTO orderDTO = requestMapper.requestToDto(order);
         orderDTO.setId(id);
         pizzaService.updateOrder(orderDTO);
     }
@@ -68,22 +172,32 @@ public class PizzaEndpoint {
     }
 
     @PostMapping(path = "/payment/{businessKey}", consumes = "application/json", produces = "application/json")
-    public ResponseEntity postPayment(@RequestBody PaymentRequest payment, @PathVariable(value = "businessKey") String businessKey) {
+    public ResponseEntity postPayment(@RequestBody PaymentRequest payment, @PathVariable(value = "businessKey") String businessKey,
+                                      @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         HttpHeaders headers = new HttpHeaders();
-        PaymentDTO paymentDTO = pizzaService.updatePaymentOfOrder(payment.getPaymentDTO(), businessKey);
-        headers.setLocation(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(paymentDTO.getId()).toUri());
-        return new ResponseEntity<>(new PizzaResponse(paymentDTO.getId()), headers, HttpStatus.CREATED);
+        PaymentDTO paymentDTO = requestMapper.requestToDto(payment);
+        long id = idempotent(idempotencyKey == null ? null : "payment:" + businessKey + ":" + idempotencyKey, fingerprint(paymentDTO),
+                () -> pizzaService.updatePaymentOfOrder(paymentDTO, businessKey).getId());
+        headers.setLocation(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(id).toUri());
+        return new ResponseEntity<>(new PizzaResponse(id), headers, HttpStatus.CREATED);
+    }
+
+    @PostMapping(path = "/payment/batch", consumes = "application/json", produces = "application/json")
+    public List<SettlementResultDTO> postPayments(@RequestBody List<SettlementRequest> settlements) {
+        return pizzaService.settlePayments(settlements.stream().map(requestMapper::requestToDto).collect(Collectors.toList()));
     }
 
-    @GetMapping(path = "/payment/{id}", produces = "application/json")
-    public PaymentDTO getPayment(@PathVariable(value = "id") long id) {
+    @GetMapping(path = "/payment/{id}", produces = {"application/json", "application/cbor", "application/x-jackson-smile"})
+    public PaymentDTO getPayment(@PathVariable(value = "id") long id, ServletWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        if(notModified(pizzaService.readPaymentVersion(id), request))
+            return null;
         return pizzaService.readPayment(id);
     }
 
     @PutMapping (path = "/payment/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void putOrder(@PathVariable(value = "id") long id, @RequestBody PaymentRequest payment) {
-        PaymentDTO paymentDTO = payment.getPaymentDTO();
+        PaymentDTO paymentDTO = requestMapper.requestToDto(payment);
         paymentDTO.setId(id);
         pizzaService.updatePayment(paymentDTO);
     }
@@ -94,35 +208,71 @@ public class PizzaEndpoint {
         pizzaService.deletePayment(id);
     }
 
-    @Data
-    private static class OrderRequest {
-        private String pizzaType;
-        private String pizzaSize;
-        private String pizzaSauce;
-        private String pizzaCrust;
-        private String pizzaTopping;
-        private String pizzaPrice;
-        private String businessKey;
-        private String firstName;
-        private String lastName;
-        private String address;
-        private String email;
-
-        OrderDTO getOrderDTO() {
-            CustomerDTO customerDTO = modelMapper.map(this, CustomerDTO.class);
-            OrderDTO orderDTO = modelMapper.map(this, OrderDTO.class);
-            orderDTO.setCustomer(customerDTO);
-            return orderDTO;
+    @GetMapping(path = "/report/revenue/type", produces = "application/json")
+    public List<RevenueDTO> getRevenueByPizzaType(@RequestParam(defaultValue = "false") boolean paidOnly,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to) {
+        return pizzaService.revenueByPizzaType(paidOnly, from, to);
+    }
+
+    @GetMapping(path = "/report/revenue/size", produces = "application/json")
+    public List<RevenueDTO> getRevenueByPizzaSize(@RequestParam(defaultValue = "false") boolean paidOnly,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to) {
+        return pizzaService.revenueByPizzaSize(paidOnly, from, to);
+    }
+
+    @GetMapping(path = "/report/revenue/day", produces = "application/json")
+    public List<RevenueDTO> getRevenueByDay(@RequestParam(defaultValue = "false") boolean paidOnly,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to) {
+        return pizzaService.revenueByDay(paidOnly, from, to);
+    }
+
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<Map<String, String>> idempotencyKeyConflict(IdempotencyKeyConflictException e) {
+        return ResponseEntity.unprocessableEntity().body(Collections.singletonMap("message", e.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<Map<String, String>> idempotencyKeyInProgress(IdempotencyKeyInProgressException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Collections.singletonMap("message", e.getMessage()));
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> dataIntegrityViolation(DataIntegrityViolationException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Collections.singletonMap("message", "The request conflicts with an existing resource"));
+    }
+
+    private boolean notModified(String version, ServletWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        String representation = representationSuffix(request);
+        return version != null && request.checkNotModified(version + representation);
+    }
+
+    // each wire format is a distinct representation and needs its own strong ETag
+    private String representationSuffix(ServletWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        for(MediaType accepted : contentNegotiationManager.resolveMediaTypes(request)) {
+            if(accepted.isCompatibleWith(MediaType.APPLICATION_JSON))
+                return "";
+            if(accepted.isCompatibleWith(CBOR))
+                return "-cbor";
+            if(accepted.isCompatibleWith(SMILE))
+                return "-smile";
         }
+        return "";
     }
 
-    @Data
-    private static class PaymentRequest {
-        private String payment;
-        private boolean receipt;
+    private long idempotent(String key, String fingerprint, LongSupplier action) {
+        return key == null ? action.getAsLong() : idempotencyService.execute(key, fingerprint, action);
+    }
 
-        PaymentDTO getPaymentDTO() {
-            return modelMapper.map(this, PaymentDTO.class);
+    // SHA-256 of the serialized request, so a reused key is only accepted for the very same request
+    private String fingerprint(Object request) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
@@ -134,6 +284,13 @@ public class PizzaEndpoint {
             this.id = id;
         }
     }
-}
 
+    @Data
+    private static class CountResponse {
+        private long count;
 
+        CountResponse(long count) {
+            this.count = count;
+        }
+    }
+}
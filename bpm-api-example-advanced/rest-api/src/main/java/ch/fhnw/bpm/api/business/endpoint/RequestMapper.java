@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.endpoint;
+
+import ch.fhnw.bpm.api.business.dto.CustomerDTO;
+import ch.fhnw.bpm.api.business.dto.OrderDTO;
+import ch.fhnw.bpm.api.business.dto.PaymentDTO;
+import ch.fhnw.bpm.api.business.dto.SettlementDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Mappings;
+
+@Mapper(componentModel = "spring")
+interface RequestMapper {
+    @Mappings({@Mapping(target = "id", ignore = true), @Mapping(target = "creationTimestamp", ignore = true), @Mapping(target = "status", ignore = true), @Mapping(target = "payment", ignore = true), @Mapping(target = "customer", source = "request")})
+    OrderDTO requestToDto(OrderRequest request);
+    @Mappings({@Mapping(target = "id", ignore = true), @Mapping(target = "orders", ignore = true)})
+    CustomerDTO requestToCustomerDto(OrderRequest request);
+    @Mappings({@Mapping(target = "id", ignore = true), @Mapping(target = "creationTimestamp", ignore = true), @Mapping(target = "order", ignore = true)})
+    PaymentDTO requestToDto(PaymentRequest request);
+    SettlementDTO requestToDto(SettlementRequest request);
+}
@@ -0,0 +1,15 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.endpoint;
+
+import lombok.Data;
+
+@Data
+class SettlementRequest {
+    private String businessKey;
+    private String payment;
+    private boolean receipt;
+}
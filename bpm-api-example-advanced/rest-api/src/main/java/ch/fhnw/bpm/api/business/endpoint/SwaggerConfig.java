@@ -5,6 +5,7 @@
 
 package ch.fhnw.bpm.api.business.endpoint;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import springfox.documentation.builders.PathSelectors;
@@ -14,6 +15,7 @@ import springfox.documentation.spring.web.plugins.Docket;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 @Configuration
+@ConditionalOnProperty(name = "bpm.swagger.enabled", havingValue = "true", matchIfMissing = true)
 @EnableSwagger2
 public class SwaggerConfig {
     @Bean
@@ -21,6 +21,7 @@ public class OrderDTO {
     private String pizzaPrice;
     private String businessKey;
     private Date creationTimestamp;
+    private String status;
     private CustomerDTO customer;
     private PaymentDTO payment;
 
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.dto;
+
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+@Data
+public class OrderEventDTO {
+
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String ORDERS_CREATED = "ORDERS_CREATED";
+    public static final String PAYMENT_ATTACHED = "PAYMENT_ATTACHED";
+    public static final String RESYNC = "RESYNC";
+
+    private long id;
+    private String type;
+    private Long orderId;
+    private List<Long> orderIds;
+    private String businessKey;
+    private Long paymentId;
+    private Date timestamp;
+}
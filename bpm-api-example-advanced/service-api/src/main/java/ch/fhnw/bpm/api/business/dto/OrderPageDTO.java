@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class OrderPageDTO {
+
+    private List<OrderDTO> orders;
+    private Long next;
+    private String version;
+}
@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class RevenueDTO {
+
+    private String key;
+    private long orders;
+    private BigDecimal revenue;
+    // orders whose price could not be read and is missing from the revenue
+    private long unparsed;
+}
@@ -0,0 +1,16 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.dto;
+
+import lombok.Data;
+
+@Data
+public class SettlementDTO {
+
+    private String businessKey;
+    private String payment;
+    private boolean receipt;
+}
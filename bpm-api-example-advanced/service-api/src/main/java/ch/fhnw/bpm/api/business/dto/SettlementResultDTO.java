@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.dto;
+
+import lombok.Data;
+
+@Data
+public class SettlementResultDTO {
+
+    public static final String MATCHED = "MATCHED";
+    public static final String UNKNOWN = "UNKNOWN";
+    public static final String ALREADY_PAID = "ALREADY_PAID";
+
+    private String businessKey;
+    private String result;
+    private Long orderId;
+    private Long paymentId;
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import java.util.function.LongSupplier;
+
+public interface IdempotencyService {
+
+    /**
+     * Runs {@code action} once per key and returns the id it produced. Later calls with the same key return the
+     * recorded id, and calls arriving while the first one is still running wait for its result, for a bounded time
+     * after which they raise {@link IdempotencyKeyInProgressException}. A failed action records nothing. The fingerprint is a digest of the request; reusing a key for a request with a different fingerprint raises
+     * {@link IdempotencyKeyConflictException}.
+     */
+    long execute(String key, String fingerprint, LongSupplier action);
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import ch.fhnw.bpm.api.business.dto.OrderEventDTO;
+
+import java.util.function.Consumer;
+
+public interface OrderEventService {
+
+    /**
+     * Delivers the events committed after {@code lastEventId} (only new ones if it is null), followed by every later
+     * event, in order. A {@link OrderEventDTO#RESYNC} event is sent first if events after {@code lastEventId} are no
+     * longer retained. Delivery stops when the returned action is run or the listener throws. A subscriber that falls
+     * too far behind is dropped and {@code onDropped} runs; it can resubscribe with the id of the last event it received.
+     * A batch of orders is announced by a single {@link OrderEventDTO#ORDERS_CREATED} event listing their ids, so a
+     * batch neither fills the subscriber queues nor pushes earlier events out of the retained history.
+     */
+    Runnable subscribe(Long lastEventId, Consumer<OrderEventDTO> listener, Runnable onDropped);
+}
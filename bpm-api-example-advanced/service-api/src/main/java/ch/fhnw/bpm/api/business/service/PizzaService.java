@@ -6,23 +6,38 @@
 package ch.fhnw.bpm.api.business.service;
 
 import ch.fhnw.bpm.api.business.dto.OrderDTO;
+import ch.fhnw.bpm.api.business.dto.OrderPageDTO;
 import ch.fhnw.bpm.api.business.dto.PaymentDTO;
+import ch.fhnw.bpm.api.business.dto.RevenueDTO;
+import ch.fhnw.bpm.api.business.dto.SettlementDTO;
+import ch.fhnw.bpm.api.business.dto.SettlementResultDTO;
 
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public interface PizzaService {
     OrderDTO createOrder(OrderDTO order);
 
+    List<Long> createOrders(List<OrderDTO> orders);
+
     PaymentDTO updatePaymentOfOrder(PaymentDTO payment, String businessKey);
 
+    List<SettlementResultDTO> settlePayments(List<SettlementDTO> settlements);
+
     OrderDTO readOrder(long id);
 
+    String readOrderVersion(long id);
+
     OrderDTO updateOrder(OrderDTO order);
 
     void deleteOrder(long id);
 
     PaymentDTO readPayment(long id);
 
+    String readPaymentVersion(long id);
+
     PaymentDTO updatePayment(PaymentDTO payment);
 
     void deletePayment(long id);
@@ -34,4 +49,21 @@ public interface PizzaService {
     List<OrderDTO> findAllUnpaidOrders();
 
     List<OrderDTO> findAllUnpaidOrdersCustomer(String email);
+
+    long countUnpaidOrders(String email);
+
+    OrderPageDTO findOrderPage(String email, boolean unpaidOnly, long after, int size);
+
+    /**
+     * Leaves the orders of the page unmapped when {@code notModified} accepts its version.
+     */
+    OrderPageDTO findOrderPage(String email, boolean unpaidOnly, long after, int size, Predicate<String> notModified);
+
+    List<RevenueDTO> revenueByPizzaType(boolean paidOnly, Date from, Date to);
+
+    List<RevenueDTO> revenueByPizzaSize(boolean paidOnly, Date from, Date to);
+
+    List<RevenueDTO> revenueByDay(boolean paidOnly, Date from, Date to);
+
+    void exportOrders(String email, boolean unpaidOnly, Consumer<OrderDTO> consumer);
 }
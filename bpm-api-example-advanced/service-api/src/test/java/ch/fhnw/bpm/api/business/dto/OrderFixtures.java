@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order requests shared by the tests and the benchmarks. Order {@code n} belongs to customer {@code n % customers},
+ * even orders are large pizzas for 12.50 and odd ones medium for 9.50, and every business key is unique in the JVM.
+ */
+public final class OrderFixtures {
+
+    private static final AtomicLong BUSINESS_KEYS = new AtomicLong();
+
+    private OrderFixtures() {
+    }
+
+    public static List<OrderDTO> orders(int count) {
+        return orders(count, 3);
+    }
+
+    public static List<OrderDTO> orders(int count, int customers) {
+        List<OrderDTO> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(order(i, customers));
+        }
+        return orders;
+    }
+
+    public static OrderDTO order(long n, int customers) {
+        OrderDTO order = order(email(n % customers));
+        order.getCustomer().setAddress("Street " + n % customers);
+        order.setPizzaSize(n % 2 == 0 ? "L" : "M");
+        order.setPizzaPrice(n % 2 == 0 ? "12.50" : "9.50");
+        return order;
+    }
+
+    public static OrderDTO order(String email) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setFirstName("First");
+        customer.setLastName("Last");
+        customer.setAddress("Street");
+        customer.setEmail(email);
+        OrderDTO order = new OrderDTO();
+        order.setPizzaType("Margherita");
+        order.setPizzaSize("L");
+        order.setPizzaSauce("Tomato");
+        order.setPizzaCrust("Thin");
+        order.setPizzaTopping("Basil");
+        order.setPizzaPrice("12.50");
+        order.setBusinessKey("bk-" + BUSINESS_KEYS.incrementAndGet());
+        order.setCustomer(customer);
+        return order;
+    }
+
+    public static String email(long customer) {
+        return "customer" + customer + "@example.com";
+    }
+}
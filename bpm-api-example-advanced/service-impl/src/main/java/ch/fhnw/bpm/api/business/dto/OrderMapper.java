@@ -5,18 +5,65 @@
 
 package ch.fhnw.bpm.api.business.dto;
 
+import ch.fhnw.bpm.api.business.service.PizzaCatalog;
 import ch.fhnw.bpm.api.data.domain.OrderEntity;
+import ch.fhnw.bpm.api.data.domain.OrderView;
+import ch.fhnw.bpm.api.data.domain.RevenueView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
 
+import java.math.BigDecimal;
 import java.util.List;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = PizzaCatalog.class)
 public interface OrderMapper {
-    @Mappings({@Mapping(target = "customer.orders", ignore = true), @Mapping(target = "payment.order", ignore = true)})
+    @Mappings({@Mapping(target = "customer.orders", ignore = true), @Mapping(target = "payment.order", ignore = true),
+            @Mapping(target = "pizzaType", source = "pizzaTypeCode"), @Mapping(target = "pizzaSize", source = "pizzaSizeCode"),
+            @Mapping(target = "pizzaSauce", source = "pizzaSauceCode"), @Mapping(target = "pizzaCrust", source = "pizzaCrustCode"),
+            @Mapping(target = "pizzaTopping", source = "pizzaToppingCode")})
     OrderDTO entityToDto(OrderEntity entity);
-    @Mappings({@Mapping(target = "customer.orders", ignore = true), @Mapping(target = "payment.order", ignore = true)})
+    @Mappings({@Mapping(target = "customer.orders", ignore = true), @Mapping(target = "payment.order", ignore = true), @Mapping(target = "status", ignore = true),
+            @Mapping(target = "pizzaTypeCode", source = "pizzaType", qualifiedByName = "pizzaType"),
+            @Mapping(target = "pizzaSizeCode", source = "pizzaSize", qualifiedByName = "pizzaSize"),
+            @Mapping(target = "pizzaSauceCode", source = "pizzaSauce", qualifiedByName = "pizzaSauce"),
+            @Mapping(target = "pizzaCrustCode", source = "pizzaCrust", qualifiedByName = "pizzaCrust"),
+            @Mapping(target = "pizzaToppingCode", source = "pizzaTopping", qualifiedByName = "pizzaTopping")})
     OrderEntity dtoToEntity(OrderDTO dto);
     List<OrderDTO> entitiesToDtos(List<OrderEntity> entities);
+    @Mappings({@Mapping(target = "customer", source = "view"), @Mapping(target = "payment", source = "view"),
+            @Mapping(target = "pizzaType", source = "pizzaTypeCode"), @Mapping(target = "pizzaSize", source = "pizzaSizeCode"),
+            @Mapping(target = "pizzaSauce", source = "pizzaSauceCode"), @Mapping(target = "pizzaCrust", source = "pizzaCrustCode"),
+            @Mapping(target = "pizzaTopping", source = "pizzaToppingCode")})
+    OrderDTO viewToDto(OrderView view);
+    List<OrderDTO> viewsToDtos(List<OrderView> views);
+    RevenueDTO revenueViewToDto(RevenueView view);
+    List<RevenueDTO> revenueViewsToDtos(List<RevenueView> views);
+
+    default BigDecimal minorUnitsToAmount(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, 2);
+    }
+
+    default CustomerDTO viewToCustomerDto(OrderView view) {
+        if (view.getCustomerId() == null)
+            return null;
+        CustomerDTO customer = new CustomerDTO();
+        customer.setId(view.getCustomerId());
+        customer.setFirstName(view.getCustomerFirstName());
+        customer.setLastName(view.getCustomerLastName());
+        customer.setAddress(view.getCustomerAddress());
+        customer.setEmail(view.getCustomerEmail());
+        return customer;
+    }
+
+    default PaymentDTO viewToPaymentDto(OrderView view) {
+        if (view.getPaymentId() == null)
+            return null;
+        PaymentDTO payment = new PaymentDTO();
+        payment.setId(view.getPaymentId());
+        payment.setPayment(view.getPayment());
+        payment.setReceipt(view.getPaymentReceipt());
+        payment.setCreationTimestamp(view.getPaymentCreationTimestamp());
+        return payment;
+    }
 }
@@ -5,17 +5,29 @@
 
 package ch.fhnw.bpm.api.business.dto;
 
+import ch.fhnw.bpm.api.business.service.PizzaCatalog;
+import ch.fhnw.bpm.api.data.domain.OrderEntity;
 import ch.fhnw.bpm.api.data.domain.PaymentEntity;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = PizzaCatalog.class)
 public interface PaymentMapper {
 
-    @Mappings({@Mapping(target = "order.payment", ignore = true), @Mapping(target = "order.customer", ignore = true)})
     PaymentDTO entityToDto(PaymentEntity entity);
-    @Mappings({@Mapping(target = "order.payment", ignore = true), @Mapping(target = "order.customer", ignore = true)})
     PaymentEntity dtoToEntity(PaymentDTO dto);
+    @Mappings({@Mapping(target = "payment", ignore = true), @Mapping(target = "customer", ignore = true),
+            @Mapping(target = "pizzaType", source = "pizzaTypeCode"), @Mapping(target = "pizzaSize", source = "pizzaSizeCode"),
+            @Mapping(target = "pizzaSauce", source = "pizzaSauceCode"), @Mapping(target = "pizzaCrust", source = "pizzaCrustCode"),
+            @Mapping(target = "pizzaTopping", source = "pizzaToppingCode")})
+    OrderDTO orderToDto(OrderEntity entity);
+    @Mappings({@Mapping(target = "payment", ignore = true), @Mapping(target = "customer", ignore = true), @Mapping(target = "status", ignore = true),
+            @Mapping(target = "pizzaTypeCode", source = "pizzaType", qualifiedByName = "pizzaType"),
+            @Mapping(target = "pizzaSizeCode", source = "pizzaSize", qualifiedByName = "pizzaSize"),
+            @Mapping(target = "pizzaSauceCode", source = "pizzaSauce", qualifiedByName = "pizzaSauce"),
+            @Mapping(target = "pizzaCrustCode", source = "pizzaCrust", qualifiedByName = "pizzaCrust"),
+            @Mapping(target = "pizzaToppingCode", source = "pizzaTopping", qualifiedByName = "pizzaTopping")})
+    OrderEntity dtoToOrder(OrderDTO dto);
 
 }
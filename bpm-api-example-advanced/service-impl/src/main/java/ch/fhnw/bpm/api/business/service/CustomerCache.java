@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import ch.fhnw.bpm.api.data.domain.CustomerEntity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded email to customer cache consulted by the order create path. Entries are immutable snapshots of the
+ * customer row and are only published once the reading transaction has committed, and only if the email has not been
+ * evicted since the reader took its generation. Changing a customer evicts it instead of publishing the new details.
+ */
+@Component
+public class CustomerCache {
+
+    private final Cache<String, CachedCustomer> cache;
+    private final Generations generations = new Generations();
+
+    public CustomerCache(@Value("${bpm.customer-cache.maximum-size:10000}") long maximumSize,
+                         @Value("${bpm.customer-cache.expire-after-write-seconds:600}") long expireAfterWriteSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public CustomerEntity get(String email) {
+        if (email == null)
+            return null;
+        CachedCustomer cachedCustomer = cache.getIfPresent(email);
+        return cachedCustomer == null ? null : cachedCustomer.toEntity();
+    }
+
+    /**
+     * To be taken before the customer row is read, see {@link #put}.
+     */
+    public long generation(String email) {
+        return email == null ? 0 : generations.current(email);
+    }
+
+    public void put(CustomerEntity customerEntity, long generation) {
+        if (customerEntity.getEmail() == null)
+            return;
+        CachedCustomer cachedCustomer = new CachedCustomer(customerEntity);
+        afterCommit(() -> generations.put(cache, cachedCustomer.email, cachedCustomer, generation));
+    }
+
+    public void evict(String email) {
+        if (email == null)
+            return;
+        invalidate(email);
+        afterCommit(() -> invalidate(email));
+    }
+
+    private void invalidate(String email) {
+        generations.advance(email);
+        cache.invalidate(email);
+    }
+
+    public void invalidateAll() {
+        generations.advanceAll();
+        cache.invalidateAll();
+    }
+
+    public Cache<String, ?> getNativeCache() {
+        return cache;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    public static boolean sameDetails(CustomerEntity customer, CustomerEntity other) {
+        return Objects.equals(customer.getFirstName(), other.getFirstName())
+                && Objects.equals(customer.getLastName(), other.getLastName())
+                && Objects.equals(customer.getAddress(), other.getAddress());
+    }
+
+    private static final class CachedCustomer {
+        private final long id;
+        private final String firstName;
+        private final String lastName;
+        private final String address;
+        private final String email;
+
+        private CachedCustomer(CustomerEntity customerEntity) {
+            this.id = customerEntity.getId();
+            this.firstName = customerEntity.getFirstName();
+            this.lastName = customerEntity.getLastName();
+            this.address = customerEntity.getAddress();
+            this.email = customerEntity.getEmail();
+        }
+
+        private CustomerEntity toEntity() {
+            CustomerEntity customerEntity = new CustomerEntity();
+            customerEntity.setId(id);
+            customerEntity.setFirstName(firstName);
+            customerEntity.setLastName(lastName);
+            customerEntity.setAddress(address);
+            customerEntity.setEmail(email);
+            return customerEntity;
+        }
+    }
+}
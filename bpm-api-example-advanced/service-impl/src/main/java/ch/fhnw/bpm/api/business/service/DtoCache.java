@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import ch.fhnw.bpm.api.business.dto.CustomerDTO;
+import ch.fhnw.bpm.api.business.dto.OrderDTO;
+import ch.fhnw.bpm.api.business.dto.PaymentDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded id to DTO cache backing the order and payment reads. Entries are private copies that are only published
+ * once the loading transaction has committed, and every read hands out a fresh copy so callers cannot alter them.
+ * Evictions are applied immediately and again after commit and advance the generation of the id; a reader passes the
+ * generation it took before loading, and its put is dropped if an eviction happened since, so a reader that commits
+ * after a writer cannot re-publish the state the writer replaced. The entity tag of each resource is kept next to its DTO and leaves the cache with it, so conditional reads of a
+ * cached resource do not need a version query.
+ */
+@Component
+public class DtoCache {
+
+    private final Cache<Long, OrderDTO> orders;
+    private final Cache<Long, PaymentDTO> payments;
+    private final Cache<Long, String> orderVersions;
+    private final Cache<Long, String> paymentVersions;
+    private final Generations orderGenerations = new Generations();
+    private final Generations paymentGenerations = new Generations();
+
+    public DtoCache(@Value("${bpm.dto-cache.maximum-size:10000}") long maximumSize,
+                    @Value("${bpm.dto-cache.expire-after-write-seconds:60}") long expireAfterWriteSeconds) {
+        this.orders = build(maximumSize, expireAfterWriteSeconds);
+        this.payments = build(maximumSize, expireAfterWriteSeconds);
+        this.orderVersions = build(maximumSize, expireAfterWriteSeconds);
+        this.paymentVersions = build(maximumSize, expireAfterWriteSeconds);
+    }
+
+    private static <V> Cache<Long, V> build(long maximumSize, long expireAfterWriteSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public OrderDTO getOrder(long id) {
+        return copy(orders.getIfPresent(id));
+    }
+
+    public long orderGeneration(long id) {
+        return orderGenerations.current(id);
+    }
+
+    public void putOrder(OrderDTO order, long generation) {
+        if (order != null)
+            put(orderGenerations, orders, order.getId(), copy(order), generation);
+    }
+
+    public String getOrderVersion(long id) {
+        return orderVersions.getIfPresent(id);
+    }
+
+    public void putOrderVersion(long id, String version, long generation) {
+        if (version != null)
+            put(orderGenerations, orderVersions, id, version, generation);
+    }
+
+    public void evictOrder(long id) {
+        invalidateOrder(id);
+        afterCommit(() -> invalidateOrder(id));
+    }
+
+    private void invalidateOrder(long id) {
+        orderGenerations.advance(id);
+        orders.invalidate(id);
+        orderVersions.invalidate(id);
+    }
+
+    public void evictAllOrders() {
+        invalidateAllOrders();
+        afterCommit(this::invalidateAllOrders);
+    }
+
+    private void invalidateAllOrders() {
+        orderGenerations.advanceAll();
+        orders.invalidateAll();
+        orderVersions.invalidateAll();
+    }
+
+    public PaymentDTO getPayment(long id) {
+        return copy(payments.getIfPresent(id));
+    }
+
+    public long paymentGeneration(long id) {
+        return paymentGenerations.current(id);
+    }
+
+    public void putPayment(PaymentDTO payment, long generation) {
+        if (payment != null)
+            put(paymentGenerations, payments, payment.getId(), copy(payment), generation);
+    }
+
+    public String getPaymentVersion(long id) {
+        return paymentVersions.getIfPresent(id);
+    }
+
+    public void putPaymentVersion(long id, String version, long generation) {
+        if (version != null)
+            put(paymentGenerations, paymentVersions, id, version, generation);
+    }
+
+    public void evictPayment(long id) {
+        invalidatePayment(id);
+        afterCommit(() -> invalidatePayment(id));
+    }
+
+    private void invalidatePayment(long id) {
+        paymentGenerations.advance(id);
+        payments.invalidate(id);
+        paymentVersions.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        invalidateAllOrders();
+        paymentGenerations.advanceAll();
+        payments.invalidateAll();
+        paymentVersions.invalidateAll();
+    }
+
+    public Cache<Long, ?> getOrderCache() {
+        return orders;
+    }
+
+    public Cache<Long, ?> getPaymentCache() {
+        return payments;
+    }
+
+    private static <V> void put(Generations generations, Cache<Long, V> cache, long id, V value, long generation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(() -> generations.put(cache, id, value, generation));
+        } else {
+            generations.put(cache, id, value, generation);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static OrderDTO copy(OrderDTO order) {
+        if (order == null)
+            return null;
+        OrderDTO copy = new OrderDTO();
+        copy.setId(order.getId());
+        copy.setPizzaType(order.getPizzaType());
+        copy.setPizzaSize(order.getPizzaSize());
+        copy.setPizzaSauce(order.getPizzaSauce());
+        copy.setPizzaCrust(order.getPizzaCrust());
+        copy.setPizzaTopping(order.getPizzaTopping());
+        copy.setPizzaPrice(order.getPizzaPrice());
+        copy.setBusinessKey(order.getBusinessKey());
+        copy.setCreationTimestamp(copy(order.getCreationTimestamp()));
+        copy.setStatus(order.getStatus());
+        copy.setCustomer(copy(order.getCustomer()));
+        copy.setPayment(copy(order.getPayment()));
+        return copy;
+    }
+
+    private static PaymentDTO copy(PaymentDTO payment) {
+        if (payment == null)
+            return null;
+        PaymentDTO copy = new PaymentDTO();
+        copy.setId(payment.getId());
+        copy.setPayment(payment.getPayment());
+        copy.setReceipt(payment.isReceipt());
+        copy.setCreationTimestamp(copy(payment.getCreationTimestamp()));
+        copy.setOrder(copy(payment.getOrder()));
+        return copy;
+    }
+
+    private static CustomerDTO copy(CustomerDTO customer) {
+        if (customer == null)
+            return null;
+        CustomerDTO copy = new CustomerDTO();
+        copy.setId(customer.getId());
+        copy.setFirstName(customer.getFirstName());
+        copy.setLastName(customer.getLastName());
+        copy.setAddress(customer.getAddress());
+        copy.setEmail(customer.getEmail());
+        return copy;
+    }
+
+    private static Date copy(Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+}
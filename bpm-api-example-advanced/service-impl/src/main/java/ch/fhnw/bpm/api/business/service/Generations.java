@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Striped invalidation counters for the read-through caches. A reader takes the generation of its key before it reads
+ * the database and may only cache what it read if no invalidation of that stripe happened in between, so a reader
+ * that commits after a writer cannot put the state the writer replaced back into the cache.
+ */
+final class Generations {
+
+    private static final int STRIPES = 1024;
+
+    private final AtomicLongArray stripes = new AtomicLongArray(STRIPES);
+
+    long current(Object key) {
+        return stripes.get(stripe(key));
+    }
+
+    void advance(Object key) {
+        stripes.incrementAndGet(stripe(key));
+    }
+
+    void advanceAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.incrementAndGet(i);
+        }
+    }
+
+    // runs under the entry lock, so an invalidation either sees the new entry or the put sees the advanced generation
+    <K, V> void put(Cache<K, V> cache, K key, V value, long generation) {
+        cache.asMap().compute(key, (k, cached) -> current(key) == generation ? value : cached);
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
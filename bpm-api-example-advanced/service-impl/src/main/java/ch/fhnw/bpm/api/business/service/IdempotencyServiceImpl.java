@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import ch.fhnw.bpm.api.data.domain.IdempotencyKeyEntity;
+import ch.fhnw.bpm.api.data.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, expiring record of idempotent requests. A key whose first request is still running maps to a future in an
+ * unbounded map, so duplicates wait for its outcome instead of starting a second transaction and the entry cannot be
+ * evicted while it runs; only the completed result moves to the bounded cache. A failure removes the entry and lets
+ * the waiters try again. With {@code bpm.idempotency.persistent} the key is also written in the same transaction as
+ * the action, which extends the guarantee across restarts and instances.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${bpm.idempotency.persistent:false}")
+    private boolean persistent;
+
+    private final ConcurrentMap<String, CompletableFuture<Result>> running = new ConcurrentHashMap<>();
+    private final Cache<String, Result> results;
+    private final long expireAfterWriteMillis;
+    private final long waitTimeoutMillis;
+    private final AtomicLong nextPurge = new AtomicLong();
+
+    public IdempotencyServiceImpl(@Value("${bpm.idempotency.maximum-size:10000}") long maximumSize,
+                                  @Value("${bpm.idempotency.expire-after-write-seconds:86400}") long expireAfterWriteSeconds,
+                                  @Value("${bpm.idempotency.wait-timeout-millis:30000}") long waitTimeoutMillis) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.expireAfterWriteMillis = TimeUnit.SECONDS.toMillis(expireAfterWriteSeconds);
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    @Override
+    public long execute(String key, String fingerprint, LongSupplier action) {
+        Result result = results.getIfPresent(key);
+        while (result == null) {
+            CompletableFuture<Result> pending = new CompletableFuture<>();
+            CompletableFuture<Result> existing = running.putIfAbsent(key, pending);
+            if (existing != null) {
+                result = await(key, existing);
+                continue;
+            }
+            // the first request may have completed between the lookup and the registration
+            result = results.getIfPresent(key);
+            try {
+                if (result == null) {
+                    result = run(key, fingerprint, action);
+                    results.put(key, result);
+                }
+            } catch (RuntimeException e) {
+                running.remove(key, pending);
+                pending.completeExceptionally(e);
+                throw e;
+            }
+            running.remove(key, pending);
+            pending.complete(result);
+        }
+        if (!result.fingerprint.equals(fingerprint))
+            throw new IdempotencyKeyConflictException(key);
+        return result.id;
+    }
+
+    // null if the first request failed, the caller then tries to run the action itself
+    private Result await(String key, CompletableFuture<Result> pending) {
+        try {
+            return pending.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        }
+    }
+
+    public Cache<String, ?> getCache() {
+        return results;
+    }
+
+    private Result run(String key, String fingerprint, LongSupplier action) {
+        if (!persistent)
+            return new Result(fingerprint, action.getAsLong());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        purgeExpired(transaction);
+        Result stored = transaction.execute(status -> find(key));
+        if (stored != null)
+            return stored;
+        try {
+            return transaction.execute(status -> {
+                long id = action.getAsLong();
+                entityManager.persist(new IdempotencyKeyEntity(key, fingerprint, id));
+                idempotencyKeyRepository.flush();
+                return new Result(fingerprint, id);
+            });
+        } catch (DataIntegrityViolationException e) {
+            stored = transaction.execute(status -> find(key));
+            if (stored == null)
+                throw e;
+            return stored;
+        }
+    }
+
+    private Result find(String key) {
+        IdempotencyKeyEntity entity = idempotencyKeyRepository.findById(key).orElse(null);
+        if (entity == null)
+            return null;
+        if (entity.getCreationTimestamp().getTime() < System.currentTimeMillis() - expireAfterWriteMillis) {
+            idempotencyKeyRepository.delete(entity);
+            return null;
+        }
+        return new Result(entity.getFingerprint(), entity.getResultId());
+    }
+
+    private void purgeExpired(TransactionTemplate transaction) {
+        long now = System.currentTimeMillis();
+        long next = nextPurge.get();
+        if (now < next || !nextPurge.compareAndSet(next, now + TimeUnit.MINUTES.toMillis(1)))
+            return;
+        transaction.execute(status -> idempotencyKeyRepository.deleteCreatedBefore(new Date(now - expireAfterWriteMillis)));
+    }
+
+    private static final class Result {
+
+        private final String fingerprint;
+        private final long id;
+
+        private Result(String fingerprint, long id) {
+            this.fingerprint = fingerprint;
+            this.id = id;
+        }
+    }
+}
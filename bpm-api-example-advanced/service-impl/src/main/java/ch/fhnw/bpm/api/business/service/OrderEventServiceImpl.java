@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import ch.fhnw.bpm.api.business.dto.OrderEventDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Numbers the order events published by {@link PizzaServiceImpl} once their transaction has committed, keeps the
+ * most recent ones in a ring buffer for reconnecting clients and fans them out to subscribers. Every subscriber has
+ * its own bounded queue, drained by a sender thread while events are pending, so the committing request never waits
+ * for a subscriber and a slow subscriber only delays itself. A subscriber whose queue overflows is dropped.
+ */
+@Service
+public class OrderEventServiceImpl implements OrderEventService {
+
+    private final OrderEventDTO[] buffer;
+    private final int queueSize;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "order-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long firstId;
+    private long lastId;
+
+    public OrderEventServiceImpl(@Value("${bpm.order-events.buffer-size:1000}") int bufferSize,
+                                 @Value("${bpm.order-events.subscriber-queue-size:256}") int queueSize) {
+        this.buffer = new OrderEventDTO[bufferSize];
+        this.queueSize = queueSize;
+        // ids continue from the start time, so a resume token issued before a restart is recognised as outdated
+        this.lastId = System.currentTimeMillis() * 1000;
+        this.firstId = lastId + 1;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCommit(OrderEventDTO event) {
+        synchronized (buffer) {
+            event.setId(++lastId);
+            buffer[(int) (lastId % buffer.length)] = event;
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    @Override
+    public Runnable subscribe(Long lastEventId, Consumer<OrderEventDTO> listener, Runnable onDropped) {
+        Subscriber subscriber;
+        synchronized (buffer) {
+            long after = lastEventId == null ? lastId : Math.min(lastEventId, lastId);
+            long retained = Math.max(firstId, lastId - buffer.length + 1);
+            List<OrderEventDTO> backlog = new ArrayList<>();
+            if (after < retained - 1) {
+                OrderEventDTO resync = new OrderEventDTO();
+                resync.setId(retained - 1);
+                resync.setType(OrderEventDTO.RESYNC);
+                resync.setTimestamp(new Date());
+                backlog.add(resync);
+                after = retained - 1;
+            }
+            for (long id = after + 1; id <= lastId; id++) {
+                backlog.add(buffer[(int) (id % buffer.length)]);
+            }
+            // the replayed backlog does not count against the queue
+            subscriber = new Subscriber(listener, onDropped, backlog.size() + queueSize);
+            backlog.forEach(subscriber::offer);
+            subscribers.add(subscriber);
+        }
+        return subscriber::close;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private final class Subscriber {
+
+        private final Consumer<OrderEventDTO> listener;
+        private final Runnable onDropped;
+        private final BlockingQueue<OrderEventDTO> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean dropped = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(Consumer<OrderEventDTO> listener, Runnable onDropped, int capacity) {
+            this.listener = listener;
+            this.onDropped = onDropped;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void offer(OrderEventDTO event) {
+            if (closed)
+                return;
+            if (!queue.offer(event)) {
+                close();
+                queue.clear();
+                dropped.set(true);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true))
+                senders.execute(this::send);
+        }
+
+        private void send() {
+            do {
+                OrderEventDTO event;
+                while (!closed && (event = queue.poll()) != null) {
+                    try {
+                        listener.accept(event);
+                    } catch (RuntimeException e) {
+                        close();
+                    }
+                }
+                scheduled.set(false);
+            } while (!closed && !queue.isEmpty() && scheduled.compareAndSet(false, true));
+            if (dropped.compareAndSet(true, false))
+                onDropped.run();
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
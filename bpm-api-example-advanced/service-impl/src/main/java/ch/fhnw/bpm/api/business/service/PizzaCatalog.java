@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import ch.fhnw.bpm.api.data.domain.PizzaAttribute;
+import ch.fhnw.bpm.api.data.domain.PizzaAttributeEntity;
+import ch.fhnw.bpm.api.data.repository.PizzaAttributeRepository;
+import org.mapstruct.Named;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * In-memory copy of the pizza attribute dictionary used by the mappers to translate between the integer codes
+ * stored on orders and their text. Lookups read an immutable snapshot without locking and always return the same
+ * String instance for a code. Unknown values are inserted in the caller's transaction and only enter the snapshot once
+ * it has committed, so a rollback cannot leave a code in memory that was never stored; until then the transaction
+ * keeps them in its own map, so a batch repeating a new value looks it up once. Unknown codes are fetched by id. Only
+ * swapping the snapshot is locked, never a database call.
+ */
+@Component
+public class PizzaCatalog {
+
+    @Autowired
+    private PizzaAttributeRepository pizzaAttributeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UniqueInsert uniqueInsert;
+
+    private volatile Dictionary dictionary = new Dictionary(Collections.emptyList());
+
+    public String decode(Integer code) {
+        if (code == null)
+            return null;
+        String name = dictionary.names.get(code);
+        if (name == null) {
+            PizzaAttributeEntity entry = pizzaAttributeRepository.findById(code).orElse(null);
+            if (entry == null)
+                return null;
+            merge(Collections.singletonList(entry));
+            name = dictionary.names.get(code);
+        }
+        return name;
+    }
+
+    public Integer encode(PizzaAttribute attribute, String name) {
+        if (name == null)
+            return null;
+        Integer code = dictionary.codes.get(attribute).get(name);
+        return code != null ? code : create(attribute, name);
+    }
+
+    @Named("pizzaType")
+    public Integer encodeType(String name) {
+        return encode(PizzaAttribute.TYPE, name);
+    }
+
+    @Named("pizzaSize")
+    public Integer encodeSize(String name) {
+        return encode(PizzaAttribute.SIZE, name);
+    }
+
+    @Named("pizzaSauce")
+    public Integer encodeSauce(String name) {
+        return encode(PizzaAttribute.SAUCE, name);
+    }
+
+    @Named("pizzaCrust")
+    public Integer encodeCrust(String name) {
+        return encode(PizzaAttribute.CRUST, name);
+    }
+
+    @Named("pizzaTopping")
+    public Integer encodeTopping(String name) {
+        return encode(PizzaAttribute.TOPPING, name);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void reload() {
+        merge(pizzaAttributeRepository.findAll());
+    }
+
+    private Integer create(PizzaAttribute attribute, String name) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Map<String, PizzaAttributeEntity> pending = pendingEntries().computeIfAbsent(attribute, key -> new HashMap<>());
+            PizzaAttributeEntity stored = pending.get(name);
+            if (stored == null) {
+                stored = pizzaAttributeRepository.findByAttributeAndName(attribute, name).orElse(null);
+                if (stored == null) {
+                    PizzaAttributeEntity inserted = new PizzaAttributeEntity(attribute, name);
+                    stored = uniqueInsert.insert(inserted) ? inserted : pizzaAttributeRepository.findByAttributeAndName(attribute, name)
+                            .orElseThrow(() -> new DataIntegrityViolationException(attribute + " " + name + " is being created concurrently"));
+                }
+                pending.put(name, stored);
+            }
+            return stored.getId();
+        });
+    }
+
+    // bound to the current transaction like a resource holder, and merged into the snapshot once it commits
+    @SuppressWarnings("unchecked")
+    private Map<PizzaAttribute, Map<String, PizzaAttributeEntity>> pendingEntries() {
+        Map<PizzaAttribute, Map<String, PizzaAttributeEntity>> pending =
+                (Map<PizzaAttribute, Map<String, PizzaAttributeEntity>>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null)
+            return pending;
+        Map<PizzaAttribute, Map<String, PizzaAttributeEntity>> entries = new EnumMap<>(PizzaAttribute.class);
+        TransactionSynchronizationManager.bindResource(this, entries);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(PizzaCatalog.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(PizzaCatalog.this, entries);
+            }
+
+            @Override
+            public void afterCommit() {
+                List<PizzaAttributeEntity> committed = new ArrayList<>();
+                entries.values().forEach(names -> committed.addAll(names.values()));
+                merge(committed);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PizzaCatalog.this);
+            }
+        });
+        return entries;
+    }
+
+    private synchronized void merge(Collection<PizzaAttributeEntity> loaded) {
+        Map<Integer, PizzaAttributeEntity> entries = new LinkedHashMap<>();
+        for (PizzaAttributeEntity entry : dictionary.entries) {
+            entries.put(entry.getId(), entry);
+        }
+        for (PizzaAttributeEntity entry : loaded) {
+            entries.putIfAbsent(entry.getId(), entry);
+        }
+        if (entries.size() > dictionary.entries.size())
+            dictionary = new Dictionary(entries.values());
+    }
+
+    private static final class Dictionary {
+
+        private final List<PizzaAttributeEntity> entries;
+        private final Map<Integer, String> names;
+        private final Map<PizzaAttribute, Map<String, Integer>> codes;
+
+        private Dictionary(Collection<PizzaAttributeEntity> entries) {
+            this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+            Map<Integer, String> names = new HashMap<>();
+            Map<PizzaAttribute, Map<String, Integer>> codes = new EnumMap<>(PizzaAttribute.class);
+            for (PizzaAttribute attribute : PizzaAttribute.values()) {
+                codes.put(attribute, new HashMap<>());
+            }
+            for (PizzaAttributeEntity entry : entries) {
+                names.put(entry.getId(), entry.getName());
+                codes.get(entry.getAttribute()).put(entry.getName(), entry.getId());
+            }
+            this.names = Collections.unmodifiableMap(names);
+            this.codes = Collections.unmodifiableMap(codes);
+        }
+    }
+}
@@ -8,20 +8,54 @@ package ch.fhnw.bpm.api.business.service;
 import ch.fhnw.bpm.api.business.dto.*;
 import ch.fhnw.bpm.api.data.domain.CustomerEntity;
 import ch.fhnw.bpm.api.data.domain.OrderEntity;
+import ch.fhnw.bpm.api.data.domain.OrderStatus;
+import ch.fhnw.bpm.api.data.domain.OrderView;
 import ch.fhnw.bpm.api.data.domain.PaymentEntity;
+import ch.fhnw.bpm.api.data.domain.VersionView;
 import ch.fhnw.bpm.api.data.repository.CustomerRepository;
 import ch.fhnw.bpm.api.data.repository.OrderRepository;
 import ch.fhnw.bpm.api.data.repository.PaymentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class PizzaServiceImpl implements PizzaService {
 
+    private static final long LATEST_TIMESTAMP = 253402300799999L;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Value("${bpm.payment-batch.chunk-size:500}")
+    private int settlementChunkSize;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -37,78 +71,417 @@ public class PizzaServiceImpl implements PizzaService {
     @Autowired
     private PaymentMapper paymentMapper;
 
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Autowired
+    private DtoCache dtoCache;
+
+    @Autowired
+    private UniqueInsert uniqueInsert;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public OrderDTO createOrder(OrderDTO order){
         OrderEntity orderEntity = orderMapper.dtoToEntity(order);
-        List<CustomerEntity> customerList = customerRepository.findByEmail(orderEntity.getCustomer().getEmail());
-        if(!customerList.isEmpty()){
-            orderEntity.getCustomer().setId(customerList.get(0).getId());
+        orderEntity.setCustomer(resolveCustomer(orderEntity.getCustomer()));
+        orderEntity = orderRepository.save(orderEntity);
+        publish(OrderEventDTO.ORDER_CREATED, orderEntity);
+        return orderMapper.entityToDto(orderEntity);
+    }
+
+    private CustomerEntity resolveCustomer(CustomerEntity submitted){
+        if(submitted.getEmail() == null)
+            return customerRepository.save(submitted);
+        long generation = customerCache.generation(submitted.getEmail());
+        CustomerEntity cached = customerCache.get(submitted.getEmail());
+        if(cached != null && CustomerCache.sameDetails(cached, submitted))
+            return cached;
+        CustomerEntity customerEntity = customerRepository.findByEmail(submitted.getEmail()).orElse(null);
+        if(customerEntity == null){
+            // a concurrent first order for the same email may win the insert, either way the stored row is re-read
+            submitted.updateLastModified();
+            uniqueInsert.insert(submitted);
+            customerEntity = customerRepository.findByEmail(submitted.getEmail()).orElseThrow(() ->
+                    new DataIntegrityViolationException("Customer " + submitted.getEmail() + " is being created concurrently"));
+        } else if(!CustomerCache.sameDetails(customerEntity, submitted)){
+            customerEntity.setFirstName(submitted.getFirstName());
+            customerEntity.setLastName(submitted.getLastName());
+            customerEntity.setAddress(submitted.getAddress());
+            customerCache.evict(customerEntity.getEmail());
+            dtoCache.evictAllOrders();
+            return customerEntity;
         }
-        orderEntity.setCustomer(customerRepository.save(orderEntity.getCustomer()));
-        return orderMapper.entityToDto(orderRepository.save(orderEntity));
+        customerCache.put(customerEntity, generation);
+        return customerEntity;
+    }
+
+    @Override
+    public List<Long> createOrders(List<OrderDTO> orders){
+        List<OrderEntity> orderEntities = orders.stream().map(orderMapper::dtoToEntity).collect(Collectors.toList());
+        Set<String> emails = orderEntities.stream().map(order -> order.getCustomer().getEmail()).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<String, Long> generations = new HashMap<>();
+        emails.forEach(email -> generations.put(email, customerCache.generation(email)));
+        Map<String, CustomerEntity> customers = new HashMap<>();
+        for(CustomerEntity customerEntity : customerRepository.findByEmailIn(emails)){
+            customers.putIfAbsent(customerEntity.getEmail(), customerEntity);
+        }
+        // new customers are inserted like in resolveCustomer and re-read together, whoever won the insert
+        Set<String> inserted = new HashSet<>();
+        for(OrderEntity orderEntity : orderEntities){
+            CustomerEntity submitted = orderEntity.getCustomer();
+            if(submitted.getEmail() != null && !customers.containsKey(submitted.getEmail()) && inserted.add(submitted.getEmail())){
+                submitted.updateLastModified();
+                uniqueInsert.insert(submitted);
+            }
+        }
+        if(!inserted.isEmpty()){
+            for(CustomerEntity customerEntity : customerRepository.findByEmailIn(inserted)){
+                customers.putIfAbsent(customerEntity.getEmail(), customerEntity);
+            }
+        }
+        for(OrderEntity orderEntity : orderEntities){
+            CustomerEntity submitted = orderEntity.getCustomer();
+            if(submitted.getEmail() == null){
+                orderEntity.setCustomer(customerRepository.save(submitted));
+                continue;
+            }
+            CustomerEntity customerEntity = customers.get(submitted.getEmail());
+            if(customerEntity == null){
+                throw new DataIntegrityViolationException("Customer " + submitted.getEmail() + " is being created concurrently");
+            } else if(!CustomerCache.sameDetails(customerEntity, submitted)){
+                customerEntity.setFirstName(submitted.getFirstName());
+                customerEntity.setLastName(submitted.getLastName());
+                customerEntity.setAddress(submitted.getAddress());
+                customerCache.evict(customerEntity.getEmail());
+                dtoCache.evictAllOrders();
+            }
+            orderEntity.setCustomer(customerEntity);
+        }
+        entityManager.flush();
+        // a customer changed by this batch was evicted, which fails the put of its generation
+        customers.forEach((email, customerEntity) -> customerCache.put(customerEntity, generations.get(email)));
+        // customers stay referenced after a clear, a detached customer is still a valid foreign key for the orders
+        List<Long> ids = new ArrayList<>(orderEntities.size());
+        for(OrderEntity orderEntity : orderEntities){
+            ids.add(orderRepository.save(orderEntity).getId());
+            if(ids.size() % batchSize == 0){
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        publishCreated(ids);
+        return ids;
     }
 
     @Override
     public PaymentDTO updatePaymentOfOrder(PaymentDTO payment, String businessKey){
         PaymentEntity paymentEntity = paymentMapper.dtoToEntity(payment);
         paymentEntity = paymentRepository.save(paymentEntity);
-        List<OrderEntity> orderList = orderRepository.findByBusinessKey(businessKey);
-        if(!orderList.isEmpty()){
-            OrderEntity orderEntity = orderList.get(0);
+        Optional<OrderEntity> order = orderRepository.findByBusinessKey(businessKey);
+        if(order.isPresent()){
+            OrderEntity orderEntity = order.get();
+            evict(orderEntity);
             orderEntity.setPayment(paymentEntity);
             orderRepository.save(orderEntity);
+            publish(OrderEventDTO.PAYMENT_ATTACHED, orderEntity);
         }
         return paymentMapper.entityToDto(paymentEntity);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SettlementResultDTO> settlePayments(List<SettlementDTO> settlements){
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<SettlementResultDTO> results = new ArrayList<>(settlements.size());
+        for(int from = 0; from < settlements.size(); from += settlementChunkSize){
+            List<SettlementDTO> chunk = settlements.subList(from, Math.min(from + settlementChunkSize, settlements.size()));
+            results.addAll(transaction.execute(status -> settleChunk(chunk)));
+        }
+        return results;
+    }
+
+    private List<SettlementResultDTO> settleChunk(List<SettlementDTO> settlements){
+        Set<String> businessKeys = settlements.stream().map(SettlementDTO::getBusinessKey).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<String, OrderEntity> orders = new HashMap<>();
+        for(OrderEntity orderEntity : orderRepository.findByBusinessKeyIn(businessKeys)){
+            orders.put(orderEntity.getBusinessKey(), orderEntity);
+        }
+        List<SettlementResultDTO> results = new ArrayList<>(settlements.size());
+        for(SettlementDTO settlement : settlements){
+            SettlementResultDTO result = new SettlementResultDTO();
+            result.setBusinessKey(settlement.getBusinessKey());
+            OrderEntity orderEntity = orders.get(settlement.getBusinessKey());
+            if(orderEntity == null){
+                result.setResult(SettlementResultDTO.UNKNOWN);
+            } else if(orderEntity.getStatus() == OrderStatus.PAID){
+                result.setResult(SettlementResultDTO.ALREADY_PAID);
+                result.setOrderId(orderEntity.getId());
+                result.setPaymentId(orderEntity.getPayment().getId());
+            } else {
+                PaymentEntity paymentEntity = new PaymentEntity();
+                paymentEntity.setPayment(settlement.getPayment());
+                paymentEntity.setReceipt(settlement.isReceipt());
+                paymentEntity = paymentRepository.save(paymentEntity);
+                evict(orderEntity);
+                orderEntity.setPayment(paymentEntity);
+                publish(OrderEventDTO.PAYMENT_ATTACHED, orderEntity);
+                result.setResult(SettlementResultDTO.MATCHED);
+                result.setOrderId(orderEntity.getId());
+                result.setPaymentId(paymentEntity.getId());
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private void publishCreated(List<Long> ids){
+        OrderEventDTO event = new OrderEventDTO();
+        event.setType(OrderEventDTO.ORDERS_CREATED);
+        event.setOrderIds(new ArrayList<>(ids));
+        event.setTimestamp(new Date());
+        eventPublisher.publishEvent(event);
+    }
+
+    private void publish(String type, OrderEntity orderEntity){
+        OrderEventDTO event = new OrderEventDTO();
+        event.setType(type);
+        event.setOrderId(orderEntity.getId());
+        event.setBusinessKey(orderEntity.getBusinessKey());
+        event.setPaymentId(orderEntity.getPayment() == null ? null : orderEntity.getPayment().getId());
+        event.setTimestamp(new Date());
+        eventPublisher.publishEvent(event);
+    }
+
+    // not read-only: what is read here is cached, and a lagging replica would re-publish the previous state
     @Override
     public OrderDTO readOrder(long id){
-        return orderMapper.entityToDto(orderRepository.findById(id).orElse(null));
+        OrderDTO cached = dtoCache.getOrder(id);
+        if(cached != null)
+            return cached;
+        long generation = dtoCache.orderGeneration(id);
+        OrderDTO order = orderMapper.entityToDto(orderRepository.findById(id).orElse(null));
+        dtoCache.putOrder(order, generation);
+        return order;
+    }
+
+    @Override
+    public String readOrderVersion(long id){
+        String cached = dtoCache.getOrderVersion(id);
+        if(cached != null)
+            return cached;
+        long generation = dtoCache.orderGeneration(id);
+        String version = tagOf(orderRepository.findVersionById(id));
+        dtoCache.putOrderVersion(id, version, generation);
+        return version;
     }
 
     @Override
     public OrderDTO updateOrder(OrderDTO order){
-        return orderMapper.entityToDto(orderRepository.save(orderMapper.dtoToEntity(order)));
+        orderRepository.findById(order.getId()).ifPresent(this::evict);
+        OrderEntity orderEntity = orderRepository.save(orderMapper.dtoToEntity(order));
+        evict(orderEntity);
+        return orderMapper.entityToDto(orderEntity);
     }
 
     @Override
     public void deleteOrder(long id){
+        orderRepository.findById(id).ifPresent(this::evict);
         orderRepository.deleteById(id);
     }
 
+    // on the primary for the same reason as readOrder
     @Override
     public PaymentDTO readPayment(long id){
-        return paymentMapper.entityToDto(paymentRepository.findById(id).orElse(null));
+        PaymentDTO cached = dtoCache.getPayment(id);
+        if(cached != null)
+            return cached;
+        long generation = dtoCache.paymentGeneration(id);
+        PaymentDTO payment = paymentMapper.entityToDto(paymentRepository.findById(id).orElse(null));
+        dtoCache.putPayment(payment, generation);
+        return payment;
+    }
+
+    @Override
+    public String readPaymentVersion(long id){
+        String cached = dtoCache.getPaymentVersion(id);
+        if(cached != null)
+            return cached;
+        long generation = dtoCache.paymentGeneration(id);
+        String version = tagOf(paymentRepository.findVersionById(id));
+        dtoCache.putPaymentVersion(id, version, generation);
+        return version;
+    }
+
+    private static String tagOf(VersionView version){
+        return version.getCount() == 0 ? null : version.getTag();
     }
 
     @Override
     public PaymentDTO updatePayment(PaymentDTO payment){
-        return paymentMapper.entityToDto(paymentRepository.save(paymentMapper.dtoToEntity(payment)));
+        paymentRepository.findById(payment.getId()).ifPresent(this::evict);
+        PaymentEntity paymentEntity = paymentRepository.save(paymentMapper.dtoToEntity(payment));
+        evict(paymentEntity);
+        return paymentMapper.entityToDto(paymentEntity);
     }
 
     @Override
     public void deletePayment(long id){
+        paymentRepository.findById(id).ifPresent(this::evict);
         paymentRepository.deleteById(id);
     }
 
+    private void evict(OrderEntity orderEntity){
+        dtoCache.evictOrder(orderEntity.getId());
+        if(orderEntity.getPayment() != null)
+            dtoCache.evictPayment(orderEntity.getPayment().getId());
+    }
+
+    private void evict(PaymentEntity paymentEntity){
+        dtoCache.evictPayment(paymentEntity.getId());
+        if(paymentEntity.getOrder() != null)
+            dtoCache.evictOrder(paymentEntity.getOrder().getId());
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDTO> findAllOrders(){
-        return orderMapper.entitiesToDtos(orderRepository.findAll());
+        return orderMapper.viewsToDtos(orderRepository.findAllViews());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDTO> findAllOrdersOfCustomer(String email){
-        return orderMapper.entitiesToDtos(orderRepository.findByCustomerEmail(email));
+        return orderMapper.viewsToDtos(orderRepository.findViewsByCustomerEmail(email));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDTO> findAllUnpaidOrders(){
-        return orderMapper.entitiesToDtos(orderRepository.findByPaymentIsNull());
+        return orderMapper.viewsToDtos(orderRepository.findUnpaidViews());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDTO> findAllUnpaidOrdersCustomer(String email){
-        return orderMapper.entitiesToDtos(orderRepository.findByCustomerEmailAndPaymentIsNull(email));
+        return orderMapper.viewsToDtos(orderRepository.findUnpaidViewsByCustomerEmail(email));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countUnpaidOrders(String email){
+        if(email != null)
+            return orderRepository.countByCustomerEmailAndStatus(email, OrderStatus.OPEN);
+        return orderRepository.countByStatus(OrderStatus.OPEN);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RevenueDTO> revenueByPizzaType(boolean paidOnly, Date from, Date to){
+        return orderMapper.revenueViewsToDtos(orderRepository.revenueByPizzaType(statuses(paidOnly), lowerBound(from), upperBound(to)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RevenueDTO> revenueByPizzaSize(boolean paidOnly, Date from, Date to){
+        return orderMapper.revenueViewsToDtos(orderRepository.revenueByPizzaSize(statuses(paidOnly), lowerBound(from), upperBound(to)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RevenueDTO> revenueByDay(boolean paidOnly, Date from, Date to){
+        return orderMapper.revenueViewsToDtos(orderRepository.revenueByDay(statuses(paidOnly), lowerBound(from), upperBound(to)));
+    }
+
+    private static Collection<OrderStatus> statuses(boolean paidOnly){
+        return paidOnly ? EnumSet.of(OrderStatus.PAID) : EnumSet.allOf(OrderStatus.class);
+    }
+
+    private static Date lowerBound(Date from){
+        return from != null ? from : new Date(0);
+    }
+
+    private static Date upperBound(Date to){
+        return to != null ? to : new Date(LATEST_TIMESTAMP);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPageDTO findOrderPage(String email, boolean unpaidOnly, long after, int size){
+        return findOrderPage(email, unpaidOnly, after, size, version -> false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPageDTO findOrderPage(String email, boolean unpaidOnly, long after, int size, Predicate<String> notModified){
+        // one extra row tells whether a next page exists without a count query
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<OrderView> orderList;
+        if(email != null) {
+            if (unpaidOnly)
+                orderList = orderRepository.findUnpaidViewPageByCustomerEmail(email, after, limit);
+            else
+                orderList = orderRepository.findViewPageByCustomerEmail(email, after, limit);
+        } else if (unpaidOnly) {
+            orderList = orderRepository.findUnpaidViewPage(after, limit);
+        } else {
+            orderList = orderRepository.findViewPage(after, limit);
+        }
+        OrderPageDTO page = new OrderPageDTO();
+        if(orderList.size() > size){
+            orderList = orderList.subList(0, size);
+            page.setNext(orderList.get(size - 1).getId());
+        }
+        page.setVersion(pageTag(orderList, page.getNext() != null));
+        if(!notModified.test(page.getVersion()))
+            page.setOrders(orderMapper.viewsToDtos(orderList));
+        return page;
+    }
+
+    // the tag only covers the rows of this page, so it costs no query beyond the page itself
+    private static String pageTag(List<OrderView> orders, boolean hasNext){
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer row = ByteBuffer.allocate(4 * Long.BYTES);
+        for(OrderView order : orders){
+            row.clear();
+            row.putLong(order.getId())
+                    .putLong(timeOf(order.getLastModified()))
+                    .putLong(timeOf(order.getCustomerLastModified()))
+                    .putLong(timeOf(order.getPaymentLastModified()));
+            digest.update(row.array());
+        }
+        digest.update((byte) (hasNext ? 1 : 0));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), 16));
+    }
+
+    private static long timeOf(Date date){
+        return date == null ? 0 : date.getTime();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrders(String email, boolean unpaidOnly, Consumer<OrderDTO> consumer){
+        Stream<OrderView> orderStream;
+        if(email != null) {
+            if (unpaidOnly)
+                orderStream = orderRepository.streamUnpaidViewsByCustomerEmail(email);
+            else
+                orderStream = orderRepository.streamViewsByCustomerEmail(email);
+        } else if (unpaidOnly) {
+            orderStream = orderRepository.streamUnpaidViews();
+        } else {
+            orderStream = orderRepository.streamAllViews();
+        }
+        try (Stream<OrderView> orders = orderStream) {
+            orders.map(orderMapper::viewToDto).forEach(consumer);
+        }
     }
 
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import ch.fhnw.bpm.api.data.domain.OrderEntity;
+import ch.fhnw.bpm.api.data.domain.PaymentEntity;
+import ch.fhnw.bpm.api.data.repository.OrderRepository;
+import ch.fhnw.bpm.api.data.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills the numeric price columns of rows written before they existed. Enabled with {@code bpm.price-backfill.enabled}
+ * for the startup after the migration; it walks the primary key in batches, one transaction per batch, so no index
+ * is kept just for it. Rows whose amount cannot be parsed stay null and are skipped rather than retried.
+ */
+@Component
+@ConditionalOnProperty(name = "bpm.price-backfill.enabled", havingValue = "true")
+public class PriceBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceBackfill.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${bpm.price-backfill.batch-size:500}")
+    private int batchSize;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void backfill() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long orders = 0;
+        long after = 0;
+        List<OrderEntity> orderBatch;
+        do {
+            long id = after;
+            orderBatch = transaction.execute(status -> {
+                List<OrderEntity> batch = orderRepository.findPriceBackfillBatch(id, PageRequest.of(0, batchSize));
+                batch.forEach(order -> order.setPizzaPrice(order.getPizzaPrice()));
+                return batch;
+            });
+            if (!orderBatch.isEmpty())
+                after = orderBatch.get(orderBatch.size() - 1).getId();
+            orders += orderBatch.size();
+        } while (orderBatch.size() == batchSize);
+        long payments = 0;
+        after = 0;
+        List<PaymentEntity> paymentBatch;
+        do {
+            long id = after;
+            paymentBatch = transaction.execute(status -> {
+                List<PaymentEntity> batch = paymentRepository.findPaymentBackfillBatch(id, PageRequest.of(0, batchSize));
+                batch.forEach(payment -> payment.setPayment(payment.getPayment()));
+                return batch;
+            });
+            if (!paymentBatch.isEmpty())
+                after = paymentBatch.get(paymentBatch.size() - 1).getId();
+            payments += paymentBatch.size();
+        } while (paymentBatch.size() == batchSize);
+        if (orders > 0 || payments > 0)
+            log.info("Backfilled numeric prices of {} orders and {} payments", orders, payments);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018. University of Applied Sciences and Arts Northwestern Switzerland FHNW.
+ * All rights reserved.
+ */
+
+package ch.fhnw.bpm.api.business.service;
+
+import org.hibernate.StatelessSession;
+import org.hibernate.cache.spi.UpdateTimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.Serializable;
+import java.sql.Savepoint;
+
+/**
+ * Inserts rows guarded by a unique key inside the caller's transaction without putting that transaction at risk. The
+ * insert runs in a stateless session on the caller's connection behind a savepoint, so losing the race against a
+ * concurrent writer only rolls back to the savepoint and the caller can re-read the row that won; the persistence
+ * context never sees the failed insert. Entity lifecycle callbacks are not invoked, callers fill derived columns.
+ */
+@Component
+class UniqueInsert {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Must be called inside a transaction. Returns {@code false} if a row with the same unique key already exists.
+     */
+    boolean insert(Object entity) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        boolean inserted = session.doReturningWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            StatelessSession statelessSession = session.getFactory().openStatelessSession(connection);
+            // unbatched, so a conflict is raised here and not when a later statement flushes the batch
+            statelessSession.setJdbcBatchSize(1);
+            try {
+                statelessSession.insert(entity);
+            } catch (ConstraintViolationException e) {
+                connection.rollback(savepoint);
+                return false;
+            } finally {
+                statelessSession.close();
+            }
+            connection.releaseSavepoint(savepoint);
+            return true;
+        });
+        if (inserted)
+            invalidateCachedQueries(session, entity);
+        return inserted;
+    }
+
+    // the stateless session bypasses the action queue, which would otherwise expire cached query results
+    private static void invalidateCachedQueries(SessionImplementor session, Object entity) {
+        UpdateTimestampsCache timestamps = session.getFactory().getCache().getUpdateTimestampsCache();
+        if (timestamps == null)
+            return;
+        Serializable[] spaces = session.getFactory().getMetamodel().entityPersister(entity.getClass()).getQuerySpaces();
+        timestamps.preInvalidate(spaces, session);
+        session.getActionQueue().registerProcess((success, completed) -> timestamps.invalidate(spaces, completed));
+    }
+}